@@ -0,0 +1,114 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.rafaskoberg.gdx.parrot.Parrot;
+import com.rafaskoberg.gdx.parrot.headless.HeadlessAudio;
+import com.rafaskoberg.gdx.parrot.sfx.PlaybackMode;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Drives Parrot through thousands of frames on a {@link HeadlessAudio} device, and fails in case anything allocates on the updating thread
+ * once warmed up. Covers playing, touching and moving sounds, voice stealing, sound death fade outs, and music fades.
+ * <p>
+ * Run with: {@code ./gradlew :benchmarks:allocationCheck}, which is also part of {@code check}.
+ */
+public class AllocationCheck {
+    private static final float DELTA = 1 / 60f;
+    private static final int WARMUP_FRAMES = 20000;
+    private static final int MEASURED_FRAMES = 5000;
+
+    // Members
+    private final Parrot parrot;
+    private final HeadlessAudio audio;
+    private final BenchmarkSoundType normalType;
+    private final BenchmarkSoundType eternalType;
+    private final BenchmarkSoundType continuousType;
+    private final BenchmarkMusicType[] musicTypes;
+    private long eternalId;
+    private int frame;
+
+    private AllocationCheck() {
+        audio = new HeadlessAudio(64, 256);
+        parrot = new Parrot();
+        audio.registerSoundDurations(parrot);
+
+        // Sound selection and variations are random, so seed them to simulate the same frames every run
+        parrot.setRandomSeed(0);
+
+        // Time continuous timeouts and death fade outs with the simulated clock, so they're the same every run
+        parrot.getSettings().clock = audio;
+        parrot.getSettings().musicFadeInDuration = 0.5f;
+        parrot.getSettings().musicFadeOutDuration = 0.5f;
+
+        // Sound types
+        BenchmarkSoundCategory spatialCategory = new BenchmarkSoundCategory(48, true);
+        BenchmarkSoundCategory flatCategory = new BenchmarkSoundCategory(8, false);
+        normalType = new BenchmarkSoundType(audio, spatialCategory, 32, PlaybackMode.NORMAL, 4);
+        eternalType = new BenchmarkSoundType(audio, spatialCategory, 4, PlaybackMode.ETERNAL, 1);
+        continuousType = new BenchmarkSoundType(audio, flatCategory, 1, PlaybackMode.CONTINUOUS, 1);
+
+        // Music types
+        musicTypes = new BenchmarkMusicType[3];
+        for(int i = 0; i < musicTypes.length; i++) {
+            musicTypes[i] = new BenchmarkMusicType(audio);
+        }
+    }
+
+    /**
+     * Simulates a single frame of a game using Parrot.
+     */
+    private void frame() {
+        frame++;
+        float x = (frame % 200) * 0.1f - 10;
+
+        // Sounds
+        parrot.setSpatialListenerCoordinates(x * 0.5f, 0);
+        parrot.playSound(normalType, x, frame % 7);
+        if(frame % 90 == 0) {
+            if(!parrot.isSoundValid(eternalId)) eternalId = parrot.playSound(eternalType, x, 2);
+            else parrot.stopSound(eternalId);
+        }
+        parrot.setSoundCoordinates(eternalId, -x, 1);
+        if(frame % 300 < 200) {
+            parrot.playSound(continuousType, x, 0);
+            parrot.touchSound(parrot.playSound(continuousType, -x, 0));
+        }
+
+        // Music
+        if(frame % 120 == 0) {
+            parrot.playMusic(musicTypes[(frame / 120) % musicTypes.length], true, true, 0, -1);
+        }
+        if(frame % 400 == 0) parrot.pauseMusicChannel(0, true);
+        if(frame % 400 == 60) parrot.resumeMusicChannel(0, true);
+
+        parrot.update(DELTA);
+        audio.update(DELTA);
+    }
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        AllocationCheck check = new AllocationCheck();
+
+        // Warm up, so pools, collections and compiled code reach their steady state
+        for(int i = 0; i < WARMUP_FRAMES; i++) {
+            check.frame();
+        }
+
+        // Measure the cost of measuring itself, then the frames
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long overhead = threads.getThreadAllocatedBytes(threadId) - before;
+        before = threads.getThreadAllocatedBytes(threadId);
+        for(int i = 0; i < MEASURED_FRAMES; i++) {
+            check.frame();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        if(allocated > 0) {
+            System.err.println("Parrot allocated " + allocated + " bytes over " + MEASURED_FRAMES + " frames after warmup.");
+            System.exit(1);
+        }
+        System.out.println("Parrot allocated no memory over " + MEASURED_FRAMES + " frames after warmup.");
+    }
+
+}
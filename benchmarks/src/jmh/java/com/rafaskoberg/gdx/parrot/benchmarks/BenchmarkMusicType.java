@@ -0,0 +1,27 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.badlogic.gdx.audio.Music;
+import com.rafaskoberg.gdx.parrot.headless.HeadlessAudio;
+import com.rafaskoberg.gdx.parrot.music.ParrotMusicType;
+
+/**
+ * {@link ParrotMusicType} backed by a ten minutes long headless track.
+ */
+public class BenchmarkMusicType implements ParrotMusicType {
+    private final Music music;
+
+    public BenchmarkMusicType(HeadlessAudio audio) {
+        this.music = audio.newMusic(600);
+    }
+
+    @Override
+    public Music getMusic() {
+        return music;
+    }
+
+    @Override
+    public float getRelativeVolume() {
+        return 1;
+    }
+
+}
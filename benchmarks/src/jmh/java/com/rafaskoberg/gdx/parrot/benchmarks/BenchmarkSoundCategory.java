@@ -0,0 +1,27 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.rafaskoberg.gdx.parrot.sfx.ParrotSoundCategory;
+
+/**
+ * {@link ParrotSoundCategory} with a configurable amount of voices.
+ */
+public class BenchmarkSoundCategory implements ParrotSoundCategory {
+    private final int voices;
+    private final boolean spatial;
+
+    public BenchmarkSoundCategory(int voices, boolean spatial) {
+        this.voices = voices;
+        this.spatial = spatial;
+    }
+
+    @Override
+    public int getVoices() {
+        return voices;
+    }
+
+    @Override
+    public boolean isSpatial() {
+        return spatial;
+    }
+
+}
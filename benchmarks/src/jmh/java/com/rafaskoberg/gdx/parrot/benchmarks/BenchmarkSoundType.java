@@ -0,0 +1,60 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+import com.rafaskoberg.gdx.parrot.headless.HeadlessAudio;
+import com.rafaskoberg.gdx.parrot.sfx.ParrotSoundCategory;
+import com.rafaskoberg.gdx.parrot.sfx.ParrotSoundType;
+import com.rafaskoberg.gdx.parrot.sfx.PlaybackMode;
+import com.rafaskoberg.gdx.parrot.util.NonRandomShuffle;
+
+/**
+ * {@link ParrotSoundType} backed by one second long headless sounds.
+ */
+public class BenchmarkSoundType implements ParrotSoundType {
+    private final Array<Sound> sounds;
+    private final ParrotSoundCategory category;
+    private final int voices;
+    private final PlaybackMode playbackMode;
+    private final NonRandomShuffle<Sound> nonRandomShuffle;
+
+    public BenchmarkSoundType(HeadlessAudio audio, ParrotSoundCategory category, int voices, PlaybackMode playbackMode, int soundCount) {
+        this.sounds = new Array<>();
+        this.category = category;
+        this.voices = voices;
+        this.playbackMode = playbackMode;
+        this.nonRandomShuffle = new NonRandomShuffle<>(0.5f);
+        this.nonRandomShuffle.setSeed(0);
+        for(int i = 0; i < soundCount; i++) {
+            Sound sound = audio.newSound(1);
+            sounds.add(sound);
+            nonRandomShuffle.addValue(sound);
+        }
+    }
+
+    @Override
+    public Array<Sound> getSounds() {
+        return sounds;
+    }
+
+    @Override
+    public ParrotSoundCategory getCategory() {
+        return category;
+    }
+
+    @Override
+    public int getVoices() {
+        return voices;
+    }
+
+    @Override
+    public PlaybackMode getPlaybackMode() {
+        return playbackMode;
+    }
+
+    @Override
+    public NonRandomShuffle<Sound> getNonRandomShuffle() {
+        return nonRandomShuffle;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.math.MathUtils;
+import com.rafaskoberg.gdx.parrot.ParrotSettings;
+
+/**
+ * Compares the lookup tables of {@link ParrotSettings} against the exact loudness and rolloff curves they approximate, at several
+ * {@link ParrotSettings#curveTableResolution resolutions}, and fails in case any of them strays too far.
+ * <p>
+ * Linear interpolation between table entries is off by at most {@code h * h / 8} times the largest second derivative of the curve, {@code h}
+ * being the distance between entries. The allowed error follows that bound, estimating the second derivative from the exact curve, with
+ * some room for float rounding and for the loudness curve being clamped to a minimum volume.
+ * <p>
+ * Run with: {@code ./gradlew :benchmarks:curveTableCheck}, which is also part of {@code check}.
+ */
+public class CurveTableCheck {
+    private static final int[] RESOLUTIONS = {16, 64, 256, 1024};
+    private static final int[] LOUDNESS_CURVES = {1, 2, 3, 4};
+    private static final Interpolation[] ROLLOFF_CURVES = {null, Interpolation.linear, Interpolation.pow2In, Interpolation.exp5In};
+    private static final String[] ROLLOFF_CURVE_NAMES = {"default", "linear", "pow2In", "exp5In"};
+    private static final float[] ROLLOFF_MIN_GAINS = {0, 0.25f};
+    private static final int SAMPLES = 20000;
+    private static final double ROUNDING_ERROR = 1e-6;
+    private static final double MIN_VOLUME = 0.000001;
+
+    // Members
+    private int failures;
+
+    /**
+     * Checks the loudness table of the given settings against {@link Math#pow(double, double)}.
+     */
+    private void checkLoudness(ParrotSettings settings) {
+        double maxError = 0;
+        double maxSecondDerivative = 0;
+        double step = 1.0 / SAMPLES;
+        for(int i = 0; i <= SAMPLES; i++) {
+            float volume = (float) (i * step);
+            maxError = Math.max(maxError, Math.abs(settings.getPerceivedVolume(volume) - exactPerceivedVolume(volume, settings)));
+
+            // The kink where the curve is clamped to the minimum volume isn't smooth, so it's left out of the estimate
+            if(i > 0 && i < SAMPLES && exactPerceivedVolume(volume - step, settings) > MIN_VOLUME) {
+                double secondDerivative = exactPerceivedVolume(volume - step, settings) - 2 * exactPerceivedVolume(volume, settings) + exactPerceivedVolume(volume + step, settings);
+                maxSecondDerivative = Math.max(maxSecondDerivative, Math.abs(secondDerivative) / (step * step));
+            }
+        }
+        report("Loudness curve " + settings.loudnessExponentialCurve, settings, 1, maxError, maxSecondDerivative);
+    }
+
+    /**
+     * Checks the rolloff table of the given settings against {@link Interpolation#apply(float, float, float)}.
+     */
+    private void checkRolloff(ParrotSettings settings, String curveName) {
+        double maxError = 0;
+        double maxSecondDerivative = 0;
+        float minDistance = settings.distanceRolloffMinDistance;
+        float maxDistance = settings.distanceRolloffMaxDistance;
+        double step = (minDistance + maxDistance * 1.5) / SAMPLES;
+        for(int i = 0; i <= SAMPLES; i++) {
+            float distance = (float) (i * step);
+            maxError = Math.max(maxError, Math.abs(settings.getDistanceRolloffFactor(distance) - exactRolloffFactor(distance, settings)));
+
+            // The kinks where the curve is clamped to the min and max distances aren't smooth, so they're left out of the estimate
+            if(distance - step > minDistance && distance + step < minDistance + maxDistance) {
+                double secondDerivative = exactRolloffFactor(distance - step, settings) - 2 * exactRolloffFactor(distance, settings) + exactRolloffFactor(distance + step, settings);
+                maxSecondDerivative = Math.max(maxSecondDerivative, Math.abs(secondDerivative) / (step * step));
+            }
+        }
+        report("Rolloff curve " + curveName + " with min gain " + settings.distanceRolloffMinGain, settings, maxDistance, maxError, maxSecondDerivative);
+    }
+
+    /**
+     * Prints the error of a table, and counts it as a failure in case it exceeds the interpolation bound.
+     *
+     * @param range Range of the curve input covered by the table.
+     */
+    private void report(String curve, ParrotSettings settings, float range, double maxError, double maxSecondDerivative) {
+        double h = range / settings.curveTableResolution;
+        double allowedError = maxSecondDerivative * h * h / 8 + MIN_VOLUME + ROUNDING_ERROR;
+        boolean passed = maxError <= allowedError;
+        if(!passed) failures++;
+        System.out.printf("%s at resolution %d: max error %.3g, allowed %.3g%s%n", curve, settings.curveTableResolution, maxError, allowedError, passed ? "" : " FAILED");
+    }
+
+    /**
+     * Returns the exact perceived volume, the same way {@link ParrotSettings#getPerceivedVolume(float)} does without tables.
+     */
+    private static double exactPerceivedVolume(double volume, ParrotSettings settings) {
+        return MathUtils.clamp(Math.pow(volume, settings.loudnessExponentialCurve), MIN_VOLUME, 1.0);
+    }
+
+    /**
+     * Returns the exact rolloff factor, the same way {@link ParrotSettings#getDistanceRolloffFactor(float)} does without tables.
+     */
+    private static double exactRolloffFactor(double distance, ParrotSettings settings) {
+        if(distance <= settings.distanceRolloffMinDistance) return 1;
+        double progress = MathUtils.clamp((distance - settings.distanceRolloffMinDistance) / settings.distanceRolloffMaxDistance, 0.0, 1.0);
+        return settings.distanceRolloffCurve.apply(settings.distanceRolloffMinGain, 1, (float) (1 - progress));
+    }
+
+    public static void main(String[] args) {
+        CurveTableCheck check = new CurveTableCheck();
+        for(int resolution : RESOLUTIONS) {
+            for(int loudnessCurve : LOUDNESS_CURVES) {
+                ParrotSettings settings = new ParrotSettings();
+                settings.curveTableResolution = resolution;
+                settings.loudnessExponentialCurve = loudnessCurve;
+                check.checkLoudness(settings);
+            }
+            for(int i = 0; i < ROLLOFF_CURVES.length; i++) {
+                for(float minGain : ROLLOFF_MIN_GAINS) {
+                    ParrotSettings settings = new ParrotSettings();
+                    settings.curveTableResolution = resolution;
+                    if(ROLLOFF_CURVES[i] != null) settings.distanceRolloffCurve = ROLLOFF_CURVES[i];
+                    settings.distanceRolloffMinGain = minGain;
+                    check.checkRolloff(settings, ROLLOFF_CURVE_NAMES[i]);
+                }
+            }
+        }
+
+        if(check.failures > 0) {
+            System.err.println(check.failures + " curve tables strayed too far from the exact curves.");
+            System.exit(1);
+        }
+        System.out.println("All curve tables are within their interpolation error bounds.");
+    }
+
+}
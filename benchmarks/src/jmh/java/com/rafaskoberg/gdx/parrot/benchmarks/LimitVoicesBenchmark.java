@@ -0,0 +1,71 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.rafaskoberg.gdx.parrot.Parrot;
+import com.rafaskoberg.gdx.parrot.headless.HeadlessAudio;
+import com.rafaskoberg.gdx.parrot.sfx.AudibilityStealPolicy;
+import com.rafaskoberg.gdx.parrot.sfx.PlaybackMode;
+import com.rafaskoberg.gdx.parrot.sfx.VoiceStealPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures voice limiting under contention. Every type and its category are full, so each play steals a voice, and each frame kills the
+ * stolen voices right away.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LimitVoicesBenchmark {
+    private static final int TYPES = 4;
+
+    @Param({"8", "64", "512"})
+    public int voices;
+
+    @Param({"priority", "audibility"})
+    public String stealPolicy;
+
+    private Parrot parrot;
+    private BenchmarkSoundType[] types;
+    private int played;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessAudio audio = new HeadlessAudio(Integer.MAX_VALUE, 1024);
+        parrot = new Parrot();
+        audio.registerSoundDurations(parrot);
+        parrot.getSettings().soundDeathFadeOut = 0;
+        parrot.setVoiceStealPolicy(stealPolicy.equals("audibility") ? new AudibilityStealPolicy() : VoiceStealPolicy.PRIORITY);
+        BenchmarkSoundCategory category = new BenchmarkSoundCategory(voices * TYPES / 2, false);
+        types = new BenchmarkSoundType[TYPES];
+        for(int i = 0; i < TYPES; i++) {
+            types[i] = new BenchmarkSoundType(audio, category, voices, PlaybackMode.ETERNAL, 1);
+            for(int j = 0; j < voices; j++) {
+                parrot.playSound(types[i]);
+            }
+        }
+        parrot.update(0);
+    }
+
+    @Benchmark
+    public long playWithStealing() {
+        long id = parrot.playSound(types[played++ % TYPES]);
+        if(played % voices == 0) parrot.update(0);
+        return id;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.rafaskoberg.gdx.parrot.util.NonRandomShuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures picking a value out of {@link NonRandomShuffle}s of different sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NonRandomShuffleBenchmark {
+
+    @Param({"4", "16", "64", "256", "1024"})
+    public int size;
+
+    private NonRandomShuffle<Integer> shuffle;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        shuffle = new NonRandomShuffle<>(0.5f);
+        for(int i = 0; i < size; i++) {
+            shuffle.addValue(i);
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        return shuffle.get();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.rafaskoberg.gdx.parrot.Parrot;
+import com.rafaskoberg.gdx.parrot.headless.HeadlessAudio;
+import com.rafaskoberg.gdx.parrot.sfx.PlaybackMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of playing a single sound. Sounds are killed in batches outside of the measurement, so the player never fills up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaySoundBenchmark {
+    private static final int BATCH = 1024;
+
+    @Param({"false", "true"})
+    public boolean spatial;
+
+    private Parrot parrot;
+    private BenchmarkSoundType type;
+    private int played;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessAudio audio = new HeadlessAudio(Integer.MAX_VALUE, 1024);
+        parrot = new Parrot();
+        audio.registerSoundDurations(parrot);
+        type = new BenchmarkSoundType(audio, new BenchmarkSoundCategory(BATCH, spatial), BATCH, PlaybackMode.NORMAL, 8);
+    }
+
+    @Setup(Level.Invocation)
+    public void killSounds() {
+        if(++played % BATCH == 0) {
+            parrot.killAllSounds();
+            parrot.flushSounds();
+        }
+    }
+
+    @Benchmark
+    public long playSound() {
+        return parrot.playSound(type, 10, 5);
+    }
+
+}
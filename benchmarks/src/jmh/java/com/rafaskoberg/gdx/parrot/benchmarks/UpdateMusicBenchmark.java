@@ -0,0 +1,55 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.rafaskoberg.gdx.parrot.Parrot;
+import com.rafaskoberg.gdx.parrot.headless.HeadlessAudio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single frame of the music player while tracks cross-fade on several channels. Fades are long enough to never finish during
+ * the benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateMusicBenchmark {
+    private static final float DELTA = 1 / 60f;
+
+    @Param({"1", "4", "16"})
+    public int channels;
+
+    private Parrot parrot;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessAudio audio = new HeadlessAudio(Integer.MAX_VALUE, 1024);
+        parrot = new Parrot();
+        parrot.getSettings().musicFadeInDuration = 3600;
+        parrot.getSettings().musicFadeOutDuration = 3600;
+        for(int channel = 0; channel < channels; channel++) {
+            parrot.playMusic(new BenchmarkMusicType(audio), true, true, channel, -1);
+            parrot.playMusic(new BenchmarkMusicType(audio), true, true, channel, -1);
+        }
+    }
+
+    @Benchmark
+    public void updateMusic() {
+        parrot.updateMusic(DELTA);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.rafaskoberg.gdx.parrot.benchmarks;
+
+import com.rafaskoberg.gdx.parrot.Parrot;
+import com.rafaskoberg.gdx.parrot.headless.HeadlessAudio;
+import com.rafaskoberg.gdx.parrot.sfx.PlaybackMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single frame of the sound player with a steady amount of eternal sounds spread around a moving listener.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateSoundsBenchmark {
+    private static final float DELTA = 1 / 60f;
+
+    @Param({"100", "1000", "10000"})
+    public int instances;
+
+    @Param({"false", "true"})
+    public boolean spatial;
+
+    private Parrot parrot;
+    private float listenerX;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessAudio audio = new HeadlessAudio(Integer.MAX_VALUE, 1024);
+        parrot = new Parrot();
+        audio.registerSoundDurations(parrot);
+        BenchmarkSoundType type = new BenchmarkSoundType(audio, new BenchmarkSoundCategory(instances, spatial), instances, PlaybackMode.ETERNAL, 8);
+        for(int i = 0; i < instances; i++) {
+            parrot.playSound(type, (i % 100) - 50, (i / 100f) - 50);
+        }
+        parrot.flushSounds();
+    }
+
+    @Benchmark
+    public void updateSounds() {
+        listenerX = (listenerX + 0.1f) % 100;
+        parrot.setSpatialListenerCoordinates(listenerX - 50, 0);
+        parrot.updateSounds(DELTA);
+    }
+
+}
@@ -1,8 +1,11 @@
 package com.rafaskoberg.gdx.parrot;
 
+import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.rafaskoberg.boom.Boom;
+import com.rafaskoberg.gdx.parrot.backend.AudioBackend;
+import com.rafaskoberg.gdx.parrot.backend.GdxAudioBackend;
 import com.rafaskoberg.gdx.parrot.music.MusicInstance;
 import com.rafaskoberg.gdx.parrot.music.MusicPlayer;
 import com.rafaskoberg.gdx.parrot.music.MusicPlayerImpl;
@@ -13,12 +16,16 @@ import com.rafaskoberg.gdx.parrot.sfx.PlaybackMode;
 import com.rafaskoberg.gdx.parrot.sfx.SoundInstance;
 import com.rafaskoberg.gdx.parrot.sfx.SoundPlayer;
 import com.rafaskoberg.gdx.parrot.sfx.SoundPlayerImpl;
+import com.rafaskoberg.gdx.parrot.sfx.VoiceStealPolicy;
 
 /**
  * Main class for Parrot, which contains settings, sound player, and music player.
  */
 public class Parrot implements SoundPlayer, MusicPlayer {
     protected ParrotSettings settings;
+    protected AudioBackend audioBackend;
+    protected ParrotStats stats;
+    protected ParrotTracer tracer;
     protected SoundPlayer soundPlayer;
     protected MusicPlayer musicPlayer;
 
@@ -27,6 +34,8 @@ public class Parrot implements SoundPlayer, MusicPlayer {
      */
     public Parrot() {
         this.settings = new ParrotSettings();
+        this.audioBackend = new GdxAudioBackend();
+        this.stats = new ParrotStats();
         this.soundPlayer = new SoundPlayerImpl(this);
         this.musicPlayer = new MusicPlayerImpl(this);
     }
@@ -39,13 +48,63 @@ public class Parrot implements SoundPlayer, MusicPlayer {
     }
 
     /**
-     * Updates all music and sound effects handled by Parrot. Must be called constantly.
+     * Returns the {@link AudioBackend} responsible for actually playing music and sound effects.
+     */
+    public AudioBackend getAudioBackend() {
+        return audioBackend;
+    }
+
+    /**
+     * Sets the {@link AudioBackend} responsible for actually playing music and sound effects. Should be called before anything is played.
+     */
+    public void setAudioBackend(AudioBackend audioBackend) {
+        this.audioBackend = audioBackend;
+    }
+
+    /**
+     * Returns the {@link ParrotStats} filled in by every {@link #update(float)}. Can be read from any thread through
+     * {@link ParrotStats#read(ParrotStats.Snapshot)}.
+     */
+    public ParrotStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the {@link ParrotTracer} notified of sound lifecycle events and update durations, or {@code null} if there's none.
+     */
+    public ParrotTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Sets the {@link ParrotTracer} notified of sound lifecycle events and update durations, or {@code null} to disable tracing.
+     */
+    public void setTracer(ParrotTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Updates all music and sound effects handled by Parrot, and then flushes the buffered sound commands. Must be called constantly.
      *
      * @param delta Time in seconds since the last frame.
      */
     public void update(float delta) {
+        ParrotTracer tracer = this.tracer;
+        stats.beginFrame();
+        long startTime = System.nanoTime();
+        if(tracer != null) tracer.beginMusicUpdate();
         updateMusic(delta);
-        updateSounds(delta);
+        if(tracer != null) tracer.endMusicUpdate();
+        long musicTime = System.nanoTime();
+        if(tracer != null) tracer.beginSoundUpdate();
+        soundPlayer.updateSounds(delta);
+        if(tracer != null) tracer.endSoundUpdate();
+        long soundTime = System.nanoTime();
+        soundPlayer.flushSounds();
+        long flushTime = System.nanoTime();
+        stats.setTimings(musicTime - startTime, soundTime - musicTime, flushTime - soundTime);
+        collectStats(stats);
+        stats.endFrame();
     }
 
     /**
@@ -76,9 +135,25 @@ public class Parrot implements SoundPlayer, MusicPlayer {
         soundPlayer.setSpatialListenerCoordinates(x, y);
     }
 
+    /**
+     * Updates all the sounds and flushes the buffered sound commands right away, in case sounds are updated separately from
+     * {@link #update(float)}.
+     */
     @Override
     public void updateSounds(float delta) {
         soundPlayer.updateSounds(delta);
+        soundPlayer.flushSounds();
+    }
+
+    @Override
+    public void flushSounds() {
+        soundPlayer.flushSounds();
+    }
+
+    @Override
+    public void collectStats(ParrotStats stats) {
+        soundPlayer.collectStats(stats);
+        musicPlayer.collectStats(stats);
     }
 
     @Override
@@ -86,6 +161,26 @@ public class Parrot implements SoundPlayer, MusicPlayer {
         return soundPlayer.playSound(type, soundIndex, x, y, volumeFactor, pitch, mode, boomChannel);
     }
 
+    @Override
+    public long playSoundImmediately(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
+        return soundPlayer.playSoundImmediately(type, soundIndex, x, y, volumeFactor, pitch, mode, boomChannel);
+    }
+
+    @Override
+    public long queuePlaySound(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
+        return soundPlayer.queuePlaySound(type, soundIndex, x, y, volumeFactor, pitch, mode, boomChannel);
+    }
+
+    @Override
+    public boolean queueStopSound(long id) {
+        return soundPlayer.queueStopSound(id);
+    }
+
+    @Override
+    public boolean queueSoundCoordinates(long id, float x, float y) {
+        return soundPlayer.queueSoundCoordinates(id, x, y);
+    }
+
     @Override
     public SoundInstance getSound(long internalId) {
         return soundPlayer.getSound(internalId);
@@ -96,6 +191,11 @@ public class Parrot implements SoundPlayer, MusicPlayer {
         return soundPlayer.getAllSounds();
     }
 
+    @Override
+    public boolean touchSound(SoundInstance soundInstance) {
+        return soundPlayer.touchSound(soundInstance);
+    }
+
     @Override
     public void setSoundCoordinates(SoundInstance soundInstance, float x, float y) {
         soundPlayer.setSoundCoordinates(soundInstance, x, y);
@@ -141,11 +241,51 @@ public class Parrot implements SoundPlayer, MusicPlayer {
         soundPlayer.killSound(category);
     }
 
+    @Override
+    public void killSound(SoundInstance soundInstance) {
+        soundPlayer.killSound(soundInstance);
+    }
+
     @Override
     public void killAllSounds() {
         soundPlayer.killAllSounds();
     }
 
+    @Override
+    public float getSoundDuration(Sound sound) {
+        return soundPlayer.getSoundDuration(sound);
+    }
+
+    @Override
+    public void setSoundDuration(Sound sound, float duration) {
+        soundPlayer.setSoundDuration(sound, duration);
+    }
+
+    @Override
+    public void prepareSoundType(ParrotSoundType type) {
+        soundPlayer.prepareSoundType(type);
+    }
+
+    @Override
+    public void forgetSound(Sound sound) {
+        soundPlayer.forgetSound(sound);
+    }
+
+    @Override
+    public void setRandomSeed(long seed) {
+        soundPlayer.setRandomSeed(seed);
+    }
+
+    @Override
+    public VoiceStealPolicy getVoiceStealPolicy() {
+        return soundPlayer.getVoiceStealPolicy();
+    }
+
+    @Override
+    public void setVoiceStealPolicy(VoiceStealPolicy stealPolicy) {
+        soundPlayer.setVoiceStealPolicy(stealPolicy);
+    }
+
     @Override
     public float getMusicPlayerVolume() {
         return musicPlayer.getMusicPlayerVolume();
@@ -1,8 +1,12 @@
 package com.rafaskoberg.gdx.parrot;
 
 import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.math.MathUtils;
+import com.rafaskoberg.gdx.parrot.sfx.ParrotSoundType;
 import com.rafaskoberg.gdx.parrot.sfx.PlaybackMode;
 import com.rafaskoberg.gdx.parrot.sfx.SoundInstance;
+import com.rafaskoberg.gdx.parrot.util.ParrotClock;
+import com.rafaskoberg.gdx.parrot.util.ParrotUtils;
 
 /**
  * Properties class containing settings for Parrot. Changes to it can be made at any time.
@@ -38,6 +42,18 @@ public class ParrotSettings {
      */
     public Interpolation distanceRolloffCurve = Interpolation.exp3In;
 
+    /**
+     * Amount of segments in the lookup tables approximating the {@link #loudnessExponentialCurve loudness} and
+     * {@link #distanceRolloffCurve rolloff} curves, which are linearly interpolated between entries. Higher values are more accurate, and 0
+     * disables the tables so the curves are always calculated exactly. Defaults to 256
+     */
+    public int curveTableResolution = 256;
+
+    /**
+     * In the spatial system, sounds are bucketed in a uniform grid of cells with this size, so only the cells around the listener need
+     * their distance attributes calculated every frame. Defaults to 8
+     */
+    public float spatialHashCellSize = 8f;
 
     /**
      * Distances beyond this limit will have the maximum amount of pan. Defaults to 10
@@ -49,6 +65,26 @@ public class ParrotSettings {
      */
     public float soundPanReduction = 0.33f;
 
+    /**
+     * Minimum difference in volume from the last value sent to the backend for a sound's volume to be updated again. Defaults to 0.001
+     */
+    public float soundVolumeEpsilon = 0.001f;
+
+    /**
+     * Minimum difference in pan from the last value sent to the backend for a sound's pan to be updated again. Defaults to 0.001
+     */
+    public float soundPanEpsilon = 0.001f;
+
+    /**
+     * Step that sound volumes are rounded to before being sent to the backend, or 0 to disable rounding. Defaults to 0
+     */
+    public float soundVolumeQuantization = 0f;
+
+    /**
+     * Step that sound pans are rounded to before being sent to the backend, or 0 to disable rounding. Defaults to 0
+     */
+    public float soundPanQuantization = 0f;
+
     /**
      * Speed in meters per second squared the sound should move, in case of continuous sounds. Defaults to 75
      */
@@ -69,6 +105,45 @@ public class ParrotSettings {
      */
     public float soundDeathFadeOut = 0.40f;
 
+    /**
+     * Clock timing continuous sound timeouts and death fade outs. Defaults to {@link ParrotClock#SYSTEM}.
+     */
+    public ParrotClock clock = ParrotClock.SYSTEM;
+
+    /**
+     * Whether or not inaudible sounds should release their backend voice while still having their time and position tracked. Virtual
+     * looping sounds are played again once they become audible. Since libGDX can't start a sound at an offset, virtual sounds in
+     * {@link PlaybackMode#NORMAL normal mode} stay silent until they expire, unless {@link #soundVirtualRestartNormal} is enabled.
+     * Defaults to false
+     */
+    public boolean soundVirtualVoices = false;
+
+    /**
+     * Whether or not virtual sounds in {@link PlaybackMode#NORMAL normal mode} should be played again from the beginning once they become
+     * audible, in case {@link #soundVirtualVoices} is enabled. Their time starts over as well, so they expire once played in full.
+     * Defaults to false
+     */
+    public boolean soundVirtualRestartNormal = false;
+
+    /**
+     * Volume below which sounds are made virtual, in case {@link #soundVirtualVoices} is enabled. Defaults to 0.001
+     */
+    public float soundVirtualVolume = 0.001f;
+
+    /**
+     * Volume a virtual sound must reach to be played again, in case {@link #soundVirtualVoices} is enabled. Keeping it above
+     * {@link #soundVirtualVolume} prevents sounds from flapping in and out of virtual mode. Defaults to 0.002
+     */
+    public float soundVirtualResumeVolume = 0.002f;
+
+    /**
+     * Maximum volume multiplier applied to a sound that has absorbed other plays through coalescing. Each merged play raises the volume by
+     * the square root of the amount of plays, up to this value. Defaults to 2
+     *
+     * @see ParrotSoundType#getCoalesceTime()
+     */
+    public float soundCoalesceMaxVolumeBoost = 2;
+
     /**
      * Duration in seconds that will be assigned to {@link SoundInstance}s on platforms that don't report the duration of sounds. Currently
      * that's true for all platforms except Desktop.
@@ -85,4 +160,78 @@ public class ParrotSettings {
      */
     public float musicFadeOutDuration = 0.8f;
 
+    // Curve tables
+    private float[] loudnessTable;
+    private float[] rolloffTable;
+    private int tableResolution;
+    private int tableLoudnessCurve;
+    private Interpolation tableRolloffCurve;
+    private float tableRolloffMinGain;
+
+    /**
+     * Returns the perceived volume of the given linear one, according to {@link #loudnessExponentialCurve}. Uses a lookup table unless
+     * {@link #curveTableResolution} is 0.
+     */
+    public float getPerceivedVolume(float volume) {
+        if(curveTableResolution <= 0 || volume < 0 || volume > 1) {
+            return ParrotUtils.getPerceivedVolume(volume, loudnessExponentialCurve);
+        }
+        validateCurveTables();
+        return lookup(loudnessTable, volume);
+    }
+
+    /**
+     * Returns the volume multiplier of a sound at the given distance from the listener, according to the distance rolloff settings. Uses
+     * a lookup table unless {@link #curveTableResolution} is 0.
+     */
+    public float getDistanceRolloffFactor(float distance) {
+        if(distance <= distanceRolloffMinDistance) return 1;
+        float progress = MathUtils.clamp((distance - distanceRolloffMinDistance) / distanceRolloffMaxDistance, 0.0f, 1.0f);
+        if(curveTableResolution <= 0) {
+            return distanceRolloffCurve.apply(distanceRolloffMinGain, 1, 1 - progress);
+        }
+        validateCurveTables();
+        return lookup(rolloffTable, progress);
+    }
+
+    /**
+     * Rebuilds the curve tables in case any of the settings they depend on have changed.
+     */
+    private void validateCurveTables() {
+        if(tableResolution != curveTableResolution || tableLoudnessCurve != loudnessExponentialCurve) {
+            loudnessTable = buildTable(loudnessTable, curveTableResolution);
+            for(int i = 0; i < loudnessTable.length; i++) {
+                loudnessTable[i] = ParrotUtils.getPerceivedVolume(i / (float) curveTableResolution, loudnessExponentialCurve);
+            }
+            tableLoudnessCurve = loudnessExponentialCurve;
+        }
+        if(tableResolution != curveTableResolution || tableRolloffCurve != distanceRolloffCurve || tableRolloffMinGain != distanceRolloffMinGain) {
+            rolloffTable = buildTable(rolloffTable, curveTableResolution);
+            for(int i = 0; i < rolloffTable.length; i++) {
+                rolloffTable[i] = distanceRolloffCurve.apply(distanceRolloffMinGain, 1, 1 - i / (float) curveTableResolution);
+            }
+            tableRolloffCurve = distanceRolloffCurve;
+            tableRolloffMinGain = distanceRolloffMinGain;
+        }
+        tableResolution = curveTableResolution;
+    }
+
+    /**
+     * Returns an array fitting all entries of a table with the given resolution, reusing the given one if possible.
+     */
+    private static float[] buildTable(float[] table, int resolution) {
+        if(table != null && table.length == resolution + 1) return table;
+        return new float[resolution + 1];
+    }
+
+    /**
+     * Linearly interpolates the entries of the given table around the given progress, which must be between 0 and 1.
+     */
+    private static float lookup(float[] table, float progress) {
+        float position = progress * (table.length - 1);
+        int index = Math.min((int) position, table.length - 2);
+        float alpha = position - index;
+        return table[index] + (table[index + 1] - table[index]) * alpha;
+    }
+
 }
@@ -0,0 +1,321 @@
+package com.rafaskoberg.gdx.parrot;
+
+import com.rafaskoberg.gdx.parrot.sfx.ParrotSoundCategory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-frame metrics of Parrot, filled in by {@link Parrot#update(float)} without allocating. Contains voice counters, the amount of
+ * backend calls, nanosecond timings of each subsystem along with a rolling window for percentiles, and voice counts per
+ * {@link ParrotSoundCategory}.
+ * <p>
+ * Stats can be read from any thread through {@link #read(Snapshot)}, which copies a consistent view of the last finished frame. Writes
+ * are guarded by a sequence number that is odd while a frame is being written, so readers retry instead of blocking the updating thread.
+ */
+public class ParrotStats {
+    /** Amount of frames kept for percentile calculations. */
+    public static final int WINDOW = 128;
+
+    // Timings
+    public static final int TIMING_MUSIC = 0;
+    public static final int TIMING_SOUND = 1;
+    public static final int TIMING_FLUSH = 2;
+    public static final int TIMING_TOTAL = 3;
+    public static final int TIMING_COUNT = 4;
+
+    // Values
+    private static final int FRAME = 0;
+    private static final int LIVE_VOICES = 1;
+    private static final int DYING_VOICES = 2;
+    private static final int VIRTUAL_VOICES = 3;
+    private static final int STOLEN_VOICES = 4;
+    private static final int REMOVED_VOICES = 5;
+    private static final int BACKEND_CALLS = 6;
+    private static final int REJECTED_PLAYS = 7;
+    private static final int CATEGORY_COUNT = 8;
+    private static final int TIMINGS = 9;
+    private static final int VALUE_COUNT = TIMINGS + TIMING_COUNT;
+
+    // Members
+    private final AtomicLong sequence;
+    private final AtomicLongArray values;
+    private final AtomicLongArray timingWindow;
+    private volatile AtomicReferenceArray<ParrotSoundCategory> categories;
+    private volatile AtomicIntegerArray categoryVoices;
+
+    // Writer state
+    private long frame;
+    private int categoryCount;
+
+    public ParrotStats() {
+        this.sequence = new AtomicLong();
+        this.values = new AtomicLongArray(VALUE_COUNT);
+        this.timingWindow = new AtomicLongArray(TIMING_COUNT * WINDOW);
+        this.categories = new AtomicReferenceArray<>(8);
+        this.categoryVoices = new AtomicIntegerArray(8);
+    }
+
+    /**
+     * Starts writing a new frame. Must be followed by {@link #endFrame()}.
+     */
+    public void beginFrame() {
+        sequence.incrementAndGet();
+        frame++;
+        values.lazySet(FRAME, frame);
+    }
+
+    /**
+     * Finishes writing the current frame, making it visible to readers.
+     */
+    public void endFrame() {
+        values.lazySet(CATEGORY_COUNT, categoryCount);
+        sequence.incrementAndGet();
+    }
+
+    /**
+     * Sets the amount of voices being tracked, how many of those are dying, and how many are virtual.
+     */
+    public void setVoices(int live, int dying, int virtual) {
+        values.lazySet(LIVE_VOICES, live);
+        values.lazySet(DYING_VOICES, dying);
+        values.lazySet(VIRTUAL_VOICES, virtual);
+    }
+
+    /**
+     * Sets the amount of voices stopped by voice limiting and the amount of voices removed this frame.
+     */
+    public void setRemovedVoices(int stolen, int removed) {
+        values.lazySet(STOLEN_VOICES, stolen);
+        values.lazySet(REMOVED_VOICES, removed);
+    }
+
+    /**
+     * Sets the amount of plays rejected by admission policies this frame.
+     */
+    public void setRejectedPlays(int rejectedPlays) {
+        values.lazySet(REJECTED_PLAYS, rejectedPlays);
+    }
+
+    /**
+     * Sets the amount of calls made to the audio backend this frame.
+     */
+    public void setBackendCalls(int backendCalls) {
+        values.lazySet(BACKEND_CALLS, backendCalls);
+    }
+
+    /**
+     * Adds the given amount to the calls made to the audio backend this frame. Must be called after {@link #setBackendCalls(int)}.
+     */
+    public void addBackendCalls(int backendCalls) {
+        values.lazySet(BACKEND_CALLS, values.get(BACKEND_CALLS) + backendCalls);
+    }
+
+    /**
+     * Sets the time taken by each subsystem this frame, in nanoseconds.
+     */
+    public void setTimings(long musicNanos, long soundNanos, long flushNanos) {
+        setTiming(TIMING_MUSIC, musicNanos);
+        setTiming(TIMING_SOUND, soundNanos);
+        setTiming(TIMING_FLUSH, flushNanos);
+        setTiming(TIMING_TOTAL, musicNanos + soundNanos + flushNanos);
+    }
+
+    /**
+     * Sets the amount of active voices under the given {@link ParrotSoundCategory}.
+     */
+    public void setCategoryVoices(ParrotSoundCategory category, int voices) {
+        AtomicReferenceArray<ParrotSoundCategory> categories = this.categories;
+        for(int i = 0; i < categoryCount; i++) {
+            if(categories.get(i) == category) {
+                categoryVoices.lazySet(i, voices);
+                return;
+            }
+        }
+
+        // Grow arrays in case there's no room for a new category
+        if(categoryCount == categories.length()) {
+            AtomicReferenceArray<ParrotSoundCategory> newCategories = new AtomicReferenceArray<>(categoryCount * 2);
+            AtomicIntegerArray newCategoryVoices = new AtomicIntegerArray(categoryCount * 2);
+            for(int i = 0; i < categoryCount; i++) {
+                newCategories.set(i, categories.get(i));
+                newCategoryVoices.set(i, categoryVoices.get(i));
+            }
+            this.categories = newCategories;
+            this.categoryVoices = newCategoryVoices;
+        }
+        this.categories.lazySet(categoryCount, category);
+        this.categoryVoices.lazySet(categoryCount, voices);
+        categoryCount++;
+    }
+
+    /**
+     * Copies a consistent view of the last finished frame into the given {@link Snapshot}. Can be called from any thread.
+     */
+    public void read(Snapshot out) {
+        while(true) {
+            long before = sequence.get();
+            if((before & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+
+            // Copy values
+            for(int i = 0; i < VALUE_COUNT; i++) {
+                out.values[i] = values.get(i);
+            }
+            for(int i = 0; i < out.timingWindow.length; i++) {
+                out.timingWindow[i] = timingWindow.get(i);
+            }
+            AtomicReferenceArray<ParrotSoundCategory> categories = this.categories;
+            AtomicIntegerArray categoryVoices = this.categoryVoices;
+            int count = Math.min((int) out.values[CATEGORY_COUNT], categories.length());
+            out.ensureCategoryCapacity(count);
+            for(int i = 0; i < count; i++) {
+                out.categories[i] = categories.get(i);
+                out.categoryVoices[i] = categoryVoices.get(i);
+            }
+            out.categoryCount = count;
+
+            // Retry in case a frame was written in the meantime
+            if(sequence.get() == before) return;
+        }
+    }
+
+    private void setTiming(int timing, long nanos) {
+        values.lazySet(TIMINGS + timing, nanos);
+        timingWindow.lazySet(timing * WINDOW + (int) ((frame - 1) % WINDOW), nanos);
+    }
+
+    /**
+     * Plain copy of {@link ParrotStats}, which can be read freely by the thread that filled it in.
+     */
+    public static class Snapshot {
+        private final long[] values;
+        private final long[] timingWindow;
+        private final long[] sortedTimings;
+        private ParrotSoundCategory[] categories;
+        private int[] categoryVoices;
+        private int categoryCount;
+
+        public Snapshot() {
+            this.values = new long[VALUE_COUNT];
+            this.timingWindow = new long[TIMING_COUNT * WINDOW];
+            this.sortedTimings = new long[WINDOW];
+            this.categories = new ParrotSoundCategory[8];
+            this.categoryVoices = new int[8];
+        }
+
+        /**
+         * Returns the amount of frames updated so far.
+         */
+        public long getFrame() {
+            return values[FRAME];
+        }
+
+        /**
+         * Returns the amount of voices being tracked, including dying and virtual ones.
+         */
+        public int getLiveVoices() {
+            return (int) values[LIVE_VOICES];
+        }
+
+        /**
+         * Returns the amount of voices fading out after being stopped.
+         */
+        public int getDyingVoices() {
+            return (int) values[DYING_VOICES];
+        }
+
+        /**
+         * Returns the amount of voices that are being tracked without a backend voice.
+         */
+        public int getVirtualVoices() {
+            return (int) values[VIRTUAL_VOICES];
+        }
+
+        /**
+         * Returns the amount of voices stopped by voice limiting in the last frame.
+         */
+        public int getStolenVoices() {
+            return (int) values[STOLEN_VOICES];
+        }
+
+        /**
+         * Returns the amount of voices removed in the last frame, which includes voices killed explicitly as well as voices whose fade out
+         * was over.
+         */
+        public int getRemovedVoices() {
+            return (int) values[REMOVED_VOICES];
+        }
+
+        /**
+         * Returns the amount of plays rejected by admission policies in the last frame.
+         */
+        public int getRejectedPlays() {
+            return (int) values[REJECTED_PLAYS];
+        }
+
+        /**
+         * Returns the amount of calls made to the audio backend in the last frame.
+         */
+        public int getBackendCalls() {
+            return (int) values[BACKEND_CALLS];
+        }
+
+        /**
+         * Returns the time taken by the given subsystem in the last frame, in nanoseconds.
+         *
+         * @param timing One of {@link #TIMING_MUSIC}, {@link #TIMING_SOUND}, {@link #TIMING_FLUSH} or {@link #TIMING_TOTAL}.
+         */
+        public long getNanos(int timing) {
+            return values[TIMINGS + timing];
+        }
+
+        /**
+         * Returns the given percentile of the time taken by the given subsystem over the last {@link #WINDOW} frames, in nanoseconds.
+         *
+         * @param timing     One of {@link #TIMING_MUSIC}, {@link #TIMING_SOUND}, {@link #TIMING_FLUSH} or {@link #TIMING_TOTAL}.
+         * @param percentile Percentile between 0 and 1, such as 0.99 for the 99th percentile.
+         */
+        public long getPercentileNanos(int timing, float percentile) {
+            int frames = (int) Math.min(getFrame(), WINDOW);
+            if(frames == 0) return 0;
+            System.arraycopy(timingWindow, timing * WINDOW, sortedTimings, 0, WINDOW);
+            Arrays.sort(sortedTimings, 0, frames);
+            int index = Math.min((int) Math.ceil(percentile * frames) - 1, frames - 1);
+            return sortedTimings[Math.max(index, 0)];
+        }
+
+        /**
+         * Returns the amount of {@link ParrotSoundCategory categories} with voice counts.
+         */
+        public int getCategoryCount() {
+            return categoryCount;
+        }
+
+        /**
+         * Returns the {@link ParrotSoundCategory} at the given index.
+         */
+        public ParrotSoundCategory getCategory(int index) {
+            return categories[index];
+        }
+
+        /**
+         * Returns the amount of active voices of the {@link ParrotSoundCategory} at the given index.
+         */
+        public int getCategoryVoices(int index) {
+            return categoryVoices[index];
+        }
+
+        private void ensureCategoryCapacity(int capacity) {
+            if(capacity <= categories.length) return;
+            categories = Arrays.copyOf(categories, capacity);
+            categoryVoices = Arrays.copyOf(categoryVoices, capacity);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.rafaskoberg.gdx.parrot;
+
+import com.rafaskoberg.gdx.parrot.sfx.SoundInstance;
+
+/**
+ * Hook notified of sound lifecycle events and of the duration of each update, so they can be sent to a profiler. No tracer is set by
+ * default, in which case Parrot only pays for a null check.
+ * <p>
+ * The {@code jfr} module provides a tracer emitting Java Flight Recorder events, which requires Java 11 or newer.
+ */
+public interface ParrotTracer {
+
+    /**
+     * Called once the given sound has been registered to be played.
+     */
+    void soundPlayed(SoundInstance soundInstance);
+
+    /**
+     * Called once the given sound has been explicitly stopped and starts to fade out. Sounds stopped by voice limiting or for expiring are
+     * reported through {@link #voiceStolen(SoundInstance)} and {@link #soundExpired(SoundInstance)} instead.
+     */
+    void soundStopped(SoundInstance soundInstance);
+
+    /**
+     * Called once the given sound has been stopped by voice limiting, right before it's stopped.
+     */
+    void voiceStolen(SoundInstance soundInstance);
+
+    /**
+     * Called once the given sound has been stopped for reaching the end of its duration or its continuous timeout, right before it's
+     * stopped.
+     */
+    void soundExpired(SoundInstance soundInstance);
+
+    /**
+     * Called right before the given sound is instantly killed and removed, either explicitly or once its fade out is over.
+     */
+    void soundKilled(SoundInstance soundInstance);
+
+    /**
+     * Called right before the sound player is updated.
+     */
+    void beginSoundUpdate();
+
+    /**
+     * Called right after the sound player is updated.
+     */
+    void endSoundUpdate();
+
+    /**
+     * Called right before the music player is updated.
+     */
+    void beginMusicUpdate();
+
+    /**
+     * Called right after the music player is updated.
+     */
+    void endMusicUpdate();
+
+}
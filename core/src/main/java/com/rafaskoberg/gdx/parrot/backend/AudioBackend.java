@@ -0,0 +1,79 @@
+package com.rafaskoberg.gdx.parrot.backend;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.rafaskoberg.boom.Boom;
+
+/**
+ * Low level audio interface used by the sound and music players to actually play, change and stop {@link Sound}s and {@link Music}s.
+ * Implementations decide which library effectively outputs the audio.
+ */
+public interface AudioBackend {
+
+    /**
+     * Starts playing the given {@link Sound}.
+     *
+     * @param boomChannel Boom channel to play this sound through, if supported.
+     * @param loop        Whether or not the sound should loop.
+     * @return The internal ID of the sound being played, or -1 in case of failure.
+     */
+    long playSound(Sound sound, int boomChannel, float volume, float pitch, float pan, boolean loop);
+
+    /**
+     * Changes the pan and volume of the given {@link Sound} being played under the given internal ID.
+     */
+    void setSoundPan(Sound sound, long internalId, float pan, float volume);
+
+    /**
+     * Changes the pitch of the given {@link Sound} being played under the given internal ID.
+     */
+    void setSoundPitch(Sound sound, long internalId, float pitch);
+
+    /**
+     * Stops the given {@link Sound} being played under the given internal ID.
+     */
+    void stopSound(Sound sound, long internalId);
+
+    /**
+     * Starts playing the given {@link Music} from the beginning of its playback.
+     *
+     * @param boomChannel Boom channel to play this music through, if supported.
+     */
+    void playMusic(Music music, int boomChannel);
+
+    /**
+     * Resumes the given {@link Music} from where it was paused.
+     */
+    void resumeMusic(Music music);
+
+    /**
+     * Pauses the given {@link Music}.
+     */
+    void pauseMusic(Music music);
+
+    /**
+     * Stops the given {@link Music}.
+     */
+    void stopMusic(Music music);
+
+    /**
+     * Changes the volume of the given {@link Music}.
+     */
+    void setMusicVolume(Music music, float volume);
+
+    /**
+     * Changes the playback position of the given {@link Music}, in seconds.
+     */
+    void setMusicPosition(Music music, float position);
+
+    /**
+     * Changes whether or not the given {@link Music} should loop.
+     */
+    void setMusicLooping(Music music, boolean looping);
+
+    /**
+     * Sets the {@link Boom} instance responsible for playing music and sound effects, if supported.
+     */
+    void setBoom(Boom boom);
+
+}
@@ -0,0 +1,83 @@
+package com.rafaskoberg.gdx.parrot.backend;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.rafaskoberg.boom.Boom;
+
+/**
+ * Default {@link AudioBackend}, which plays audio through libGDX, or through {@link Boom} in case an instance has been set.
+ */
+public class GdxAudioBackend implements AudioBackend {
+    protected Boom boom;
+
+    @Override
+    public long playSound(Sound sound, int boomChannel, float volume, float pitch, float pan, boolean loop) {
+        if(boom == null) {
+            // Play sound normally
+            return loop ? sound.loop(volume, pitch, pan) : sound.play(volume, pitch, pan);
+        } else {
+            // Play sound through boom
+            return loop ? boom.loop(sound, boomChannel, volume, pitch, pan) : boom.play(sound, boomChannel, volume, pitch, pan);
+        }
+    }
+
+    @Override
+    public void setSoundPan(Sound sound, long internalId, float pan, float volume) {
+        sound.setPan(internalId, pan, volume);
+    }
+
+    @Override
+    public void setSoundPitch(Sound sound, long internalId, float pitch) {
+        sound.setPitch(internalId, pitch);
+    }
+
+    @Override
+    public void stopSound(Sound sound, long internalId) {
+        sound.stop(internalId);
+    }
+
+    @Override
+    public void playMusic(Music music, int boomChannel) {
+        if(boom == null) {
+            music.play();
+        } else {
+            boom.play(music, boomChannel);
+        }
+    }
+
+    @Override
+    public void resumeMusic(Music music) {
+        music.play();
+    }
+
+    @Override
+    public void pauseMusic(Music music) {
+        music.pause();
+    }
+
+    @Override
+    public void stopMusic(Music music) {
+        music.stop();
+    }
+
+    @Override
+    public void setMusicVolume(Music music, float volume) {
+        music.setVolume(volume);
+    }
+
+    @Override
+    public void setMusicPosition(Music music, float position) {
+        music.setPosition(position);
+    }
+
+    @Override
+    public void setMusicLooping(Music music, boolean looping) {
+        music.setLooping(looping);
+    }
+
+    @Override
+    public void setBoom(Boom boom) {
+        this.boom = boom;
+    }
+
+}
@@ -0,0 +1,252 @@
+package com.rafaskoberg.gdx.parrot.headless;
+
+import com.badlogic.gdx.utils.Array;
+import com.rafaskoberg.gdx.parrot.sfx.SoundPlayer;
+import com.rafaskoberg.gdx.parrot.util.ParrotClock;
+
+import java.util.Arrays;
+
+/**
+ * Simulated audio device, which doesn't need any audio hardware. Creates {@link HeadlessSound}s and {@link HeadlessMusic}s that keep track
+ * of their playback positions as {@link #update(float)} advances a simulated clock, and records every call made to them in a
+ * {@link HeadlessCallLog}.
+ * <p>
+ * Like OpenAL, the device has a limited amount of sources shared by all sound instances. Playing a sound while all sources are in use
+ * returns -1, the same way libGDX does.
+ * <p>
+ * Parrot can't look up the duration of a {@link HeadlessSound} by itself, so pass it to {@link #registerSoundDurations(SoundPlayer)} before
+ * playing any sound.
+ * <p>
+ * Pair it with a {@link HeadlessAudioBackend} to also record the Boom channel of each sound and music, and assign it to
+ * {@link com.rafaskoberg.gdx.parrot.ParrotSettings#clock} so continuous timeouts and death fade outs follow the simulated clock too.
+ */
+public class HeadlessAudio implements ParrotClock {
+    /** Default amount of sources, matching the amount of simultaneous sources libGDX requests by default. */
+    public static final int DEFAULT_MAX_SOURCES = 16;
+    private static final int INITIAL_SOURCE_CAPACITY = 16;
+
+    // Members
+    private final HeadlessCallLog log;
+    private final Array<HeadlessSound> sounds;
+    private final Array<HeadlessMusic> musics;
+    private final Array<SoundPlayer> soundPlayers;
+    private int maxSources;
+    private float time;
+    private int boomChannel;
+
+    // Sources
+    private long[] sourceIds;
+    private int[] sourceIndices;
+    private int[] freeSources;
+    private int freeSourceCount;
+    private int nextSerial;
+
+    // Stats
+    private int usedSources;
+    private int peakSources;
+    private int rejectedPlays;
+
+    /**
+     * Creates a new device with {@link #DEFAULT_MAX_SOURCES} sources and a log of {@link HeadlessCallLog#DEFAULT_CAPACITY} entries.
+     */
+    public HeadlessAudio() {
+        this(DEFAULT_MAX_SOURCES, HeadlessCallLog.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param maxSources  Maximum amount of sound instances playing at the same time.
+     * @param logCapacity Amount of entries kept by the {@link HeadlessCallLog}.
+     */
+    public HeadlessAudio(int maxSources, int logCapacity) {
+        this.log = new HeadlessCallLog(logCapacity);
+        this.sounds = new Array<>();
+        this.musics = new Array<>();
+        this.soundPlayers = new Array<>();
+        this.maxSources = maxSources;
+        this.time = 0;
+        this.boomChannel = -1;
+        this.sourceIds = new long[0];
+        this.sourceIndices = new int[0];
+        this.freeSources = new int[0];
+        this.freeSourceCount = 0;
+        this.nextSerial = 0;
+    }
+
+    /**
+     * Creates a new {@link HeadlessSound} lasting the given amount of seconds.
+     */
+    public HeadlessSound newSound(float duration) {
+        HeadlessSound sound = new HeadlessSound(this, duration);
+        sounds.add(sound);
+        for(int i = 0; i < soundPlayers.size; i++) {
+            soundPlayers.get(i).setSoundDuration(sound, duration);
+        }
+        return sound;
+    }
+
+    /**
+     * Supplies the durations of all {@link HeadlessSound}s of this device to the given {@link SoundPlayer}, such as Parrot, through
+     * {@link SoundPlayer#setSoundDuration(com.badlogic.gdx.audio.Sound, float)}. Sounds created afterwards are supplied as well.
+     */
+    public void registerSoundDurations(SoundPlayer soundPlayer) {
+        soundPlayers.add(soundPlayer);
+        for(int i = 0; i < sounds.size; i++) {
+            HeadlessSound sound = sounds.get(i);
+            soundPlayer.setSoundDuration(sound, sound.getDuration());
+        }
+    }
+
+    /**
+     * Creates a new {@link HeadlessMusic} lasting the given amount of seconds.
+     */
+    public HeadlessMusic newMusic(float duration) {
+        HeadlessMusic music = new HeadlessMusic(this, duration);
+        musics.add(music);
+        return music;
+    }
+
+    /**
+     * Advances the simulated clock by the given amount of seconds, moving the playback position of all sounds and music tracks.
+     */
+    public void update(float delta) {
+        time += delta;
+        for(int i = 0; i < sounds.size; i++) {
+            sounds.get(i).update(delta);
+        }
+        for(int i = 0; i < musics.size; i++) {
+            musics.get(i).update(delta);
+        }
+    }
+
+    /**
+     * Returns the {@link HeadlessCallLog} recording all calls made to this device.
+     */
+    public HeadlessCallLog getLog() {
+        return log;
+    }
+
+    /**
+     * Returns the time in seconds simulated so far.
+     */
+    public float getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the time simulated so far in milliseconds.
+     */
+    @Override
+    public long millis() {
+        return (long) (time * 1000);
+    }
+
+    /**
+     * Returns the maximum amount of sound instances playing at the same time.
+     */
+    public int getMaxSources() {
+        return maxSources;
+    }
+
+    /**
+     * Sets the maximum amount of sound instances playing at the same time. Instances already playing are not affected.
+     */
+    public void setMaxSources(int maxSources) {
+        this.maxSources = maxSources;
+    }
+
+    /**
+     * Returns the amount of sound instances currently playing or paused.
+     */
+    public int getUsedSources() {
+        return usedSources;
+    }
+
+    /**
+     * Returns the highest amount of sound instances that were playing or paused at the same time.
+     */
+    public int getPeakSources() {
+        return peakSources;
+    }
+
+    /**
+     * Returns the amount of sound instances that couldn't be played since all sources were in use.
+     */
+    public int getRejectedPlays() {
+        return rejectedPlays;
+    }
+
+    /**
+     * Sets the Boom channel recorded along with the following calls, or -1 in case they aren't routed.
+     */
+    void setBoomChannel(int boomChannel) {
+        this.boomChannel = boomChannel;
+    }
+
+    /**
+     * Claims a source for a new sound instance, returning its ID or -1 in case all sources are in use. IDs hold the source in their lower
+     * 32 bits and a serial number in their upper 32 bits, so IDs of stopped instances never match new ones.
+     */
+    long acquireSource(HeadlessSound sound) {
+        if(usedSources >= maxSources) {
+            rejectedPlays++;
+            record(HeadlessCall.SOUND_REJECTED, sound, -1, 0, 0, 0);
+            return -1;
+        }
+
+        // Grow source arrays in case there's no free source
+        if(freeSourceCount == 0) {
+            int oldCapacity = sourceIds.length;
+            int newCapacity = Math.max(INITIAL_SOURCE_CAPACITY, oldCapacity * 2);
+            sourceIds = Arrays.copyOf(sourceIds, newCapacity);
+            sourceIndices = Arrays.copyOf(sourceIndices, newCapacity);
+            freeSources = Arrays.copyOf(freeSources, newCapacity);
+            for(int source = newCapacity - 1; source >= oldCapacity; source--) {
+                sourceIds[source] = -1;
+                freeSources[freeSourceCount++] = source;
+            }
+        }
+
+        int source = freeSources[--freeSourceCount];
+        long id = ((long) nextSerial++ << 32) | source;
+        sourceIds[source] = id;
+        sourceIndices[source] = -1;
+        usedSources++;
+        peakSources = Math.max(peakSources, usedSources);
+        return id;
+    }
+
+    /**
+     * Frees the source of a sound instance that has stopped.
+     */
+    void releaseSource(long id) {
+        int source = (int) id;
+        if(source < 0 || source >= sourceIds.length || sourceIds[source] != id) return;
+        sourceIds[source] = -1;
+        freeSources[freeSourceCount++] = source;
+        usedSources--;
+    }
+
+    /**
+     * Stores the index of the sound instance with the given ID within its {@link HeadlessSound}.
+     */
+    void setSourceIndex(long id, int index) {
+        sourceIndices[(int) id] = index;
+    }
+
+    /**
+     * Returns the index of the sound instance with the given ID within its {@link HeadlessSound}, or -1 if the instance has stopped.
+     */
+    int getSourceIndex(long id) {
+        int source = (int) id;
+        if(source < 0 || source >= sourceIds.length || sourceIds[source] != id) return -1;
+        return sourceIndices[source];
+    }
+
+    /**
+     * Records a call with the current time and Boom channel.
+     */
+    void record(HeadlessCall call, Object target, long id, float value0, float value1, float value2) {
+        log.record(time, call, target, id, boomChannel, value0, value1, value2);
+    }
+
+}
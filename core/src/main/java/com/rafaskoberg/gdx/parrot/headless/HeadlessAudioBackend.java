@@ -0,0 +1,50 @@
+package com.rafaskoberg.gdx.parrot.headless;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.rafaskoberg.boom.Boom;
+import com.rafaskoberg.gdx.parrot.backend.AudioBackend;
+import com.rafaskoberg.gdx.parrot.backend.GdxAudioBackend;
+
+/**
+ * {@link AudioBackend} standing in for {@link Boom} on a {@link HeadlessAudio} device. Sounds and music are always played directly, and the
+ * Boom channel they would have been routed to is recorded in the {@link HeadlessCallLog} along with the play call, so Boom isn't needed on
+ * the classpath.
+ * <p>
+ * Usage: {@code parrot.setAudioBackend(new HeadlessAudioBackend(audio));}
+ */
+public class HeadlessAudioBackend extends GdxAudioBackend {
+    private final HeadlessAudio audio;
+
+    public HeadlessAudioBackend(HeadlessAudio audio) {
+        this.audio = audio;
+    }
+
+    /**
+     * Returns the {@link HeadlessAudio} device this backend records to.
+     */
+    public HeadlessAudio getAudio() {
+        return audio;
+    }
+
+    @Override
+    public long playSound(Sound sound, int boomChannel, float volume, float pitch, float pan, boolean loop) {
+        audio.setBoomChannel(boomChannel);
+        long internalId = loop ? sound.loop(volume, pitch, pan) : sound.play(volume, pitch, pan);
+        audio.setBoomChannel(-1);
+        return internalId;
+    }
+
+    @Override
+    public void playMusic(Music music, int boomChannel) {
+        audio.setBoomChannel(boomChannel);
+        music.play();
+        audio.setBoomChannel(-1);
+    }
+
+    @Override
+    public void setBoom(Boom boom) {
+        // Boom is simulated, so the given instance is ignored
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.rafaskoberg.gdx.parrot.headless;
+
+/**
+ * Kinds of calls recorded by {@link HeadlessCallLog}. Besides calls made to {@link HeadlessSound}s and {@link HeadlessMusic}s, the log also
+ * records events simulated by {@link HeadlessAudio}, such as sounds finishing or being rejected for lack of sources.
+ */
+public enum HeadlessCall {
+    SOUND_PLAY,
+    SOUND_LOOP,
+    SOUND_STOP,
+    SOUND_PAUSE,
+    SOUND_RESUME,
+    SOUND_SET_LOOPING,
+    SOUND_SET_PITCH,
+    SOUND_SET_VOLUME,
+    SOUND_SET_PAN,
+    SOUND_DISPOSE,
+    /** A sound instance reached the end of its duration. */
+    SOUND_FINISHED,
+    /** A sound couldn't be played since all sources were in use. */
+    SOUND_REJECTED,
+
+    MUSIC_PLAY,
+    MUSIC_PAUSE,
+    MUSIC_STOP,
+    MUSIC_SET_LOOPING,
+    MUSIC_SET_VOLUME,
+    MUSIC_SET_PAN,
+    MUSIC_SET_POSITION,
+    MUSIC_DISPOSE,
+    /** A music track reached its end without looping. */
+    MUSIC_FINISHED
+}
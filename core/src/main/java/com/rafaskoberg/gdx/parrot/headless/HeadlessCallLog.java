@@ -0,0 +1,151 @@
+package com.rafaskoberg.gdx.parrot.headless;
+
+/**
+ * Preallocated log of calls made to a {@link HeadlessAudio} device, so recording never allocates. Once full, the oldest entries are
+ * overwritten, while the call counters keep counting everything that has been recorded.
+ * <p>
+ * Each entry holds the simulated time of the call, its {@link HeadlessCall kind}, the {@link HeadlessSound} or {@link HeadlessMusic} it
+ * was made to, the sound instance ID (or -1), the Boom channel it was routed to (or -1) and up to three values, such as volume, pitch and
+ * pan.
+ */
+public class HeadlessCallLog {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int VALUES = 3;
+    private static final HeadlessCall[] CALLS = HeadlessCall.values();
+
+    // Entries
+    private final float[] times;
+    private final HeadlessCall[] calls;
+    private final Object[] targets;
+    private final long[] ids;
+    private final int[] boomChannels;
+    private final float[] values;
+    private int start;
+    private int size;
+
+    // Counters
+    private final int[] counts;
+    private long totalCount;
+
+    public HeadlessCallLog(int capacity) {
+        if(capacity <= 0) throw new IllegalArgumentException("capacity must be positive.");
+        this.times = new float[capacity];
+        this.calls = new HeadlessCall[capacity];
+        this.targets = new Object[capacity];
+        this.ids = new long[capacity];
+        this.boomChannels = new int[capacity];
+        this.values = new float[capacity * VALUES];
+        this.counts = new int[CALLS.length];
+    }
+
+    /**
+     * Records a call with the given attributes.
+     */
+    void record(float time, HeadlessCall call, Object target, long id, int boomChannel, float value0, float value1, float value2) {
+        int index;
+        if(size < times.length) {
+            index = (start + size++) % times.length;
+        } else {
+            index = start;
+            start = (start + 1) % times.length;
+        }
+        times[index] = time;
+        calls[index] = call;
+        targets[index] = target;
+        ids[index] = id;
+        boomChannels[index] = boomChannel;
+        values[index * VALUES] = value0;
+        values[index * VALUES + 1] = value1;
+        values[index * VALUES + 2] = value2;
+        counts[call.ordinal()]++;
+        totalCount++;
+    }
+
+    /**
+     * Returns the amount of entries currently held, which is at most the capacity of this log.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the simulated time in seconds of the entry at the given index, where 0 is the oldest entry held.
+     */
+    public float getTime(int index) {
+        return times[toSlot(index)];
+    }
+
+    /**
+     * Returns the kind of call of the entry at the given index.
+     */
+    public HeadlessCall getCall(int index) {
+        return calls[toSlot(index)];
+    }
+
+    /**
+     * Returns the {@link HeadlessSound} or {@link HeadlessMusic} the entry at the given index refers to.
+     */
+    public Object getTarget(int index) {
+        return targets[toSlot(index)];
+    }
+
+    /**
+     * Returns the sound instance ID of the entry at the given index, or -1 if the call doesn't refer to a single instance.
+     */
+    public long getId(int index) {
+        return ids[toSlot(index)];
+    }
+
+    /**
+     * Returns the Boom channel the entry at the given index was routed to, or -1 if it wasn't routed.
+     */
+    public int getBoomChannel(int index) {
+        return boomChannels[toSlot(index)];
+    }
+
+    /**
+     * Returns one of the values of the entry at the given index.
+     *
+     * @param component Index of the value, from 0 to 2. Calls with a volume, pitch and pan hold them in this order, and pan calls hold the
+     *                  pan followed by the volume.
+     */
+    public float getValue(int index, int component) {
+        return values[toSlot(index) * VALUES + component];
+    }
+
+    /**
+     * Returns how many calls of the given kind have been recorded, including the ones overwritten since.
+     */
+    public int getCount(HeadlessCall call) {
+        return counts[call.ordinal()];
+    }
+
+    /**
+     * Returns how many calls have been recorded, including the ones overwritten since.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Removes all entries and resets all counters.
+     */
+    public void clear() {
+        for(int i = 0; i < targets.length; i++) {
+            calls[i] = null;
+            targets[i] = null;
+        }
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        start = 0;
+        size = 0;
+        totalCount = 0;
+    }
+
+    private int toSlot(int index) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+        return (start + index) % times.length;
+    }
+
+}
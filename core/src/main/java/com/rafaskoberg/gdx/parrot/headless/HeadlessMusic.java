@@ -0,0 +1,132 @@
+package com.rafaskoberg.gdx.parrot.headless;
+
+import com.badlogic.gdx.audio.Music;
+
+/**
+ * {@link Music} simulated by a {@link HeadlessAudio} device. Keeps track of its playback position, and stops on its own once it reaches its
+ * end, unless looping. Created through {@link HeadlessAudio#newMusic(float)}.
+ */
+public class HeadlessMusic implements Music {
+    // Members
+    private final HeadlessAudio audio;
+    private final float duration;
+    private boolean playing;
+    private boolean looping;
+    private float volume;
+    private float pan;
+    private float position;
+    private OnCompletionListener onCompletionListener;
+
+    HeadlessMusic(HeadlessAudio audio, float duration) {
+        this.audio = audio;
+        this.duration = duration;
+        this.volume = 1;
+    }
+
+    /**
+     * Returns the duration of this track in seconds.
+     */
+    public float getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the pan of this track.
+     */
+    public float getPan() {
+        return pan;
+    }
+
+    @Override
+    public void play() {
+        audio.record(HeadlessCall.MUSIC_PLAY, this, -1, 0, 0, 0);
+        playing = true;
+    }
+
+    @Override
+    public void pause() {
+        audio.record(HeadlessCall.MUSIC_PAUSE, this, -1, 0, 0, 0);
+        playing = false;
+    }
+
+    @Override
+    public void stop() {
+        audio.record(HeadlessCall.MUSIC_STOP, this, -1, 0, 0, 0);
+        playing = false;
+        position = 0;
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    @Override
+    public void setLooping(boolean isLooping) {
+        audio.record(HeadlessCall.MUSIC_SET_LOOPING, this, -1, isLooping ? 1 : 0, 0, 0);
+        this.looping = isLooping;
+    }
+
+    @Override
+    public boolean isLooping() {
+        return looping;
+    }
+
+    @Override
+    public void setVolume(float volume) {
+        audio.record(HeadlessCall.MUSIC_SET_VOLUME, this, -1, volume, 0, 0);
+        this.volume = volume;
+    }
+
+    @Override
+    public float getVolume() {
+        return volume;
+    }
+
+    @Override
+    public void setPan(float pan, float volume) {
+        audio.record(HeadlessCall.MUSIC_SET_PAN, this, -1, pan, volume, 0);
+        this.pan = pan;
+        this.volume = volume;
+    }
+
+    @Override
+    public void setPosition(float position) {
+        audio.record(HeadlessCall.MUSIC_SET_POSITION, this, -1, position, 0, 0);
+        this.position = position;
+    }
+
+    @Override
+    public float getPosition() {
+        return position;
+    }
+
+    @Override
+    public void dispose() {
+        audio.record(HeadlessCall.MUSIC_DISPOSE, this, -1, 0, 0, 0);
+        playing = false;
+    }
+
+    @Override
+    public void setOnCompletionListener(OnCompletionListener listener) {
+        this.onCompletionListener = listener;
+    }
+
+    /**
+     * Advances the playback position in case the track is playing, stopping it once it reaches its end.
+     */
+    void update(float delta) {
+        if(!playing) return;
+        position += delta;
+        if(position < duration) return;
+        if(looping && duration > 0) {
+            position %= duration;
+        } else {
+            audio.record(HeadlessCall.MUSIC_FINISHED, this, -1, 0, 0, 0);
+            playing = false;
+            position = 0;
+            if(onCompletionListener != null) onCompletionListener.onCompletion(this);
+        }
+    }
+
+}
@@ -0,0 +1,272 @@
+package com.rafaskoberg.gdx.parrot.headless;
+
+import com.badlogic.gdx.audio.Sound;
+
+import java.util.Arrays;
+
+/**
+ * {@link Sound} simulated by a {@link HeadlessAudio} device. Keeps track of the playback position of each of its instances, which stop on
+ * their own once they reach the end of the sound, unless looping. Created through {@link HeadlessAudio#newSound(float)}.
+ */
+public class HeadlessSound implements Sound {
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Members
+    private final HeadlessAudio audio;
+    private final float duration;
+
+    // Instances
+    private int size;
+    private long[] ids;
+    private float[] positions;
+    private float[] volumes;
+    private float[] pitches;
+    private float[] pans;
+    private boolean[] loopings;
+    private boolean[] paused;
+
+    HeadlessSound(HeadlessAudio audio, float duration) {
+        this.audio = audio;
+        this.duration = duration;
+        this.size = 0;
+        this.ids = new long[INITIAL_CAPACITY];
+        this.positions = new float[INITIAL_CAPACITY];
+        this.volumes = new float[INITIAL_CAPACITY];
+        this.pitches = new float[INITIAL_CAPACITY];
+        this.pans = new float[INITIAL_CAPACITY];
+        this.loopings = new boolean[INITIAL_CAPACITY];
+        this.paused = new boolean[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the duration of this sound in seconds.
+     */
+    public float getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the amount of instances of this sound currently playing or paused.
+     */
+    public int getInstanceCount() {
+        return size;
+    }
+
+    /**
+     * Returns whether or not the instance with the given ID is still playing or paused.
+     */
+    public boolean isActive(long soundId) {
+        return indexOf(soundId) >= 0;
+    }
+
+    /**
+     * Returns the playback position in seconds of the instance with the given ID, or -1 if it's not active.
+     */
+    public float getPosition(long soundId) {
+        int index = indexOf(soundId);
+        return index < 0 ? -1 : positions[index];
+    }
+
+    /**
+     * Returns the volume of the instance with the given ID, or -1 if it's not active.
+     */
+    public float getVolume(long soundId) {
+        int index = indexOf(soundId);
+        return index < 0 ? -1 : volumes[index];
+    }
+
+    /**
+     * Returns the pitch of the instance with the given ID, or -1 if it's not active.
+     */
+    public float getPitch(long soundId) {
+        int index = indexOf(soundId);
+        return index < 0 ? -1 : pitches[index];
+    }
+
+    /**
+     * Returns the pan of the instance with the given ID, or 0 if it's not active.
+     */
+    public float getPan(long soundId) {
+        int index = indexOf(soundId);
+        return index < 0 ? 0 : pans[index];
+    }
+
+    @Override
+    public long play() {
+        return play(1);
+    }
+
+    @Override
+    public long play(float volume) {
+        return play(volume, 1, 0);
+    }
+
+    @Override
+    public long play(float volume, float pitch, float pan) {
+        audio.record(HeadlessCall.SOUND_PLAY, this, -1, volume, pitch, pan);
+        return start(volume, pitch, pan, false);
+    }
+
+    @Override
+    public long loop() {
+        return loop(1);
+    }
+
+    @Override
+    public long loop(float volume) {
+        return loop(volume, 1, 0);
+    }
+
+    @Override
+    public long loop(float volume, float pitch, float pan) {
+        audio.record(HeadlessCall.SOUND_LOOP, this, -1, volume, pitch, pan);
+        return start(volume, pitch, pan, true);
+    }
+
+    @Override
+    public void stop() {
+        audio.record(HeadlessCall.SOUND_STOP, this, -1, 0, 0, 0);
+        while(size > 0) {
+            remove(size - 1);
+        }
+    }
+
+    @Override
+    public void pause() {
+        audio.record(HeadlessCall.SOUND_PAUSE, this, -1, 0, 0, 0);
+        Arrays.fill(paused, 0, size, true);
+    }
+
+    @Override
+    public void resume() {
+        audio.record(HeadlessCall.SOUND_RESUME, this, -1, 0, 0, 0);
+        Arrays.fill(paused, 0, size, false);
+    }
+
+    @Override
+    public void dispose() {
+        audio.record(HeadlessCall.SOUND_DISPOSE, this, -1, 0, 0, 0);
+        while(size > 0) {
+            remove(size - 1);
+        }
+    }
+
+    @Override
+    public void stop(long soundId) {
+        audio.record(HeadlessCall.SOUND_STOP, this, soundId, 0, 0, 0);
+        int index = indexOf(soundId);
+        if(index >= 0) remove(index);
+    }
+
+    @Override
+    public void pause(long soundId) {
+        audio.record(HeadlessCall.SOUND_PAUSE, this, soundId, 0, 0, 0);
+        int index = indexOf(soundId);
+        if(index >= 0) paused[index] = true;
+    }
+
+    @Override
+    public void resume(long soundId) {
+        audio.record(HeadlessCall.SOUND_RESUME, this, soundId, 0, 0, 0);
+        int index = indexOf(soundId);
+        if(index >= 0) paused[index] = false;
+    }
+
+    @Override
+    public void setLooping(long soundId, boolean looping) {
+        audio.record(HeadlessCall.SOUND_SET_LOOPING, this, soundId, looping ? 1 : 0, 0, 0);
+        int index = indexOf(soundId);
+        if(index >= 0) loopings[index] = looping;
+    }
+
+    @Override
+    public void setPitch(long soundId, float pitch) {
+        audio.record(HeadlessCall.SOUND_SET_PITCH, this, soundId, pitch, 0, 0);
+        int index = indexOf(soundId);
+        if(index >= 0) pitches[index] = pitch;
+    }
+
+    @Override
+    public void setVolume(long soundId, float volume) {
+        audio.record(HeadlessCall.SOUND_SET_VOLUME, this, soundId, volume, 0, 0);
+        int index = indexOf(soundId);
+        if(index >= 0) volumes[index] = volume;
+    }
+
+    @Override
+    public void setPan(long soundId, float pan, float volume) {
+        audio.record(HeadlessCall.SOUND_SET_PAN, this, soundId, pan, volume, 0);
+        int index = indexOf(soundId);
+        if(index >= 0) {
+            pans[index] = pan;
+            volumes[index] = volume;
+        }
+    }
+
+    /**
+     * Advances the playback position of all instances that aren't paused, stopping the ones that reached the end of the sound.
+     */
+    void update(float delta) {
+        for(int i = size - 1; i >= 0; i--) {
+            if(paused[i]) continue;
+            positions[i] += delta * pitches[i];
+            if(positions[i] < duration) continue;
+            if(loopings[i] && duration > 0) {
+                positions[i] %= duration;
+            } else {
+                audio.record(HeadlessCall.SOUND_FINISHED, this, ids[i], 0, 0, 0);
+                remove(i);
+            }
+        }
+    }
+
+    /**
+     * Starts a new instance, in case the device has a free source.
+     */
+    private long start(float volume, float pitch, float pan, boolean looping) {
+        long id = audio.acquireSource(this);
+        if(id == -1) return -1;
+        if(size == ids.length) {
+            int newCapacity = size * 2;
+            ids = Arrays.copyOf(ids, newCapacity);
+            positions = Arrays.copyOf(positions, newCapacity);
+            volumes = Arrays.copyOf(volumes, newCapacity);
+            pitches = Arrays.copyOf(pitches, newCapacity);
+            pans = Arrays.copyOf(pans, newCapacity);
+            loopings = Arrays.copyOf(loopings, newCapacity);
+            paused = Arrays.copyOf(paused, newCapacity);
+        }
+        int index = size++;
+        audio.setSourceIndex(id, index);
+        ids[index] = id;
+        positions[index] = 0;
+        volumes[index] = volume;
+        pitches[index] = pitch;
+        pans[index] = pan;
+        loopings[index] = looping;
+        paused[index] = false;
+        return id;
+    }
+
+    /**
+     * Removes the instance at the given index by swapping the last one into its place, and frees its source.
+     */
+    private void remove(int index) {
+        int last = --size;
+        audio.releaseSource(ids[index]);
+        if(index != last) audio.setSourceIndex(ids[last], index);
+        ids[index] = ids[last];
+        positions[index] = positions[last];
+        volumes[index] = volumes[last];
+        pitches[index] = pitches[last];
+        pans[index] = pans[last];
+        loopings[index] = loopings[last];
+        paused[index] = paused[last];
+    }
+
+    private int indexOf(long soundId) {
+        int index = audio.getSourceIndex(soundId);
+        return index >= 0 && index < size && ids[index] == soundId ? index : -1;
+    }
+
+}
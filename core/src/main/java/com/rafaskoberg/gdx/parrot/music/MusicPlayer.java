@@ -3,6 +3,7 @@ package com.rafaskoberg.gdx.parrot.music;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.utils.Disposable;
 import com.rafaskoberg.boom.Boom;
+import com.rafaskoberg.gdx.parrot.ParrotStats;
 
 /**
  * Music system that handles all music tracks being played in the game.
@@ -270,4 +271,11 @@ public interface MusicPlayer extends Disposable {
      */
     void setBoom(Boom boom);
 
+    /**
+     * Adds the amount of calls made to the audio backend since the last collection to the given {@link ParrotStats}. Does nothing by
+     * default.
+     */
+    default void collectStats(ParrotStats stats) {
+    }
+
 }
@@ -4,10 +4,12 @@ import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntFloatMap;
-import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.Pool;
 import com.rafaskoberg.boom.Boom;
 import com.rafaskoberg.gdx.parrot.Parrot;
 import com.rafaskoberg.gdx.parrot.ParrotSettings;
+import com.rafaskoberg.gdx.parrot.ParrotStats;
+import com.rafaskoberg.gdx.parrot.backend.AudioBackend;
 import com.rafaskoberg.gdx.parrot.music.MusicInstance.State;
 import com.rafaskoberg.gdx.parrot.util.ParrotUtils;
 
@@ -21,6 +23,7 @@ public class MusicPlayerImpl implements MusicPlayer {
     private final Array<MusicInstance> musicInstances;
     private final IntFloatMap volumesByChannel;
     private final IntFloatMap rawVolumesByChannel;
+    private final Pool<MusicInstance> musicInstancePool;
 
     // Members
     private final Parrot parrot;
@@ -30,11 +33,20 @@ public class MusicPlayerImpl implements MusicPlayer {
     private float rawVolume;
     private float masterVolume;
 
+    // Stats
+    private int backendCalls;
+
     public MusicPlayerImpl(Parrot parrot) {
         // Collections
         this.musicInstances = new Array<>();
         this.volumesByChannel = new IntFloatMap();
         this.rawVolumesByChannel = new IntFloatMap();
+        this.musicInstancePool = new Pool<MusicInstance>() {
+            @Override
+            protected MusicInstance newObject() {
+                return new MusicInstance();
+            }
+        };
 
         // Members
         this.parrot = parrot;
@@ -47,6 +59,7 @@ public class MusicPlayerImpl implements MusicPlayer {
     @Override
     public void setBoom(Boom boom) {
         this.boom = boom;
+        parrot.getAudioBackend().setBoom(boom);
     }
 
     @Override
@@ -69,7 +82,8 @@ public class MusicPlayerImpl implements MusicPlayer {
         this.masterVolume = perceivedVolume;
 
         // Change volumes
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             musicInstance.targetVolume = ParrotUtils.dbToVolume(ParrotUtils.volumeToDb(musicInstance.targetVolume) - volumeDiffDb);
         }
     }
@@ -96,7 +110,8 @@ public class MusicPlayerImpl implements MusicPlayer {
         volumesByChannel.put(channel, perceivedVolume);
 
         // Change volumes
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             if(musicInstance.channel == channel) {
                 musicInstance.targetVolume = ParrotUtils.dbToVolume(ParrotUtils.volumeToDb(musicInstance.targetVolume) - volumeDiffDb);
             }
@@ -105,6 +120,8 @@ public class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void updateMusic(float delta) {
+        AudioBackend backend = parrot.getAudioBackend();
+
         // Iterate through all music
         for(int i = musicInstances.size - 1; i >= 0; i--) {
             MusicInstance musicInstance = musicInstances.get(i);
@@ -127,14 +144,11 @@ public class MusicPlayerImpl implements MusicPlayer {
                 case SILENT: {
 
                     // Play music
-                    if(boom == null) {
-                        music.play();
-                    } else {
-                        boom.play(music, musicInstance.boomChannel);
-                    }
-                    music.setPosition(musicInstance.initialPosition);
-                    music.setVolume(MIN_VOLUME);
-                    music.setLooping(musicInstance.isLooping);
+                    backend.playMusic(music, musicInstance.boomChannel);
+                    backend.setMusicPosition(music, musicInstance.initialPosition);
+                    backend.setMusicVolume(music, MIN_VOLUME);
+                    backend.setMusicLooping(music, musicInstance.isLooping);
+                    backendCalls += 4;
                     boolean shouldFadeIn = musicInstance.nextState == State.FADING_IN;
                     musicInstance.state = shouldFadeIn ? State.FADING_IN : State.PLAYING;
                     musicInstance.nextState = shouldFadeIn ? State.PLAYING : null;
@@ -144,14 +158,16 @@ public class MusicPlayerImpl implements MusicPlayer {
                 case FADING_IN: {
                     // Play music if necessary
                     if(!music.isPlaying()) {
-                        music.play();
+                        backend.resumeMusic(music);
+                        backendCalls++;
                     }
 
                     // Process fade-in
                     float progress = MathUtils.clamp(musicInstance.stateTimer / Math.max(settings.musicFadeInDuration, 0.00001f), 0, 1);
                     float perceivedProgress = interpolation.applyIn(progress);
                     float volume = MathUtils.lerp(0, musicInstance.targetVolume, perceivedProgress);
-                    music.setVolume(MathUtils.clamp(volume, MIN_VOLUME, 1));
+                    backend.setMusicVolume(music, MathUtils.clamp(volume, MIN_VOLUME, 1));
+                    backendCalls++;
                     if(musicInstance.stateTimer > settings.musicFadeInDuration) {
                         musicInstance.state = State.PLAYING;
                         musicInstance.nextState = null;
@@ -162,7 +178,8 @@ public class MusicPlayerImpl implements MusicPlayer {
                 case PLAYING: {
                     if(music.isPlaying()) {
                         // Adjust volume
-                        music.setVolume(MathUtils.clamp(musicInstance.targetVolume, MIN_VOLUME, 1));
+                        backend.setMusicVolume(music, MathUtils.clamp(musicInstance.targetVolume, MIN_VOLUME, 1));
+                        backendCalls++;
                     } else {
                         // Dispose instances that are no longer playing
                         musicInstance.state = State.DISPOSING;
@@ -176,14 +193,17 @@ public class MusicPlayerImpl implements MusicPlayer {
                     float perceivedProgress = interpolation.applyOut(progress);
                     float volume = MathUtils.lerp(musicInstance.targetVolume, MIN_VOLUME, perceivedProgress);
                     if(music.isPlaying()) {
-                        music.setVolume(MathUtils.clamp(volume, MIN_VOLUME, 1));
+                        backend.setMusicVolume(music, MathUtils.clamp(volume, MIN_VOLUME, 1));
+                        backendCalls++;
                     }
                     if(musicInstance.stateTimer > settings.musicFadeOutDuration) {
-                        music.pause();
+                        backend.pauseMusic(music);
+                        backendCalls++;
                         if(musicInstance.nextState == State.PAUSED) {
                             musicInstance.state = State.PAUSED;
                         } else {
-                            music.setPosition(0);
+                            backend.setMusicPosition(music, 0);
+                            backendCalls++;
                             musicInstance.state = State.DISPOSING;
                         }
                         musicInstance.nextState = null;
@@ -200,8 +220,9 @@ public class MusicPlayerImpl implements MusicPlayer {
             // Dispose instances
             if(musicInstance.state == State.DISPOSING) {
                 musicInstances.removeIndex(i);
-                musicInstance.music.stop();
-                Pools.free(musicInstance);
+                backend.stopMusic(musicInstance.music);
+                backendCalls++;
+                musicInstancePool.free(musicInstance);
             }
         }
     }
@@ -227,7 +248,7 @@ public class MusicPlayerImpl implements MusicPlayer {
 
             // Create new MusicInstance if necessary
             if(musicInstance == null) {
-                musicInstance = Pools.obtain(MusicInstance.class);
+                musicInstance = musicInstancePool.obtain();
                 musicInstances.add(musicInstance);
             }
 
@@ -246,11 +267,14 @@ public class MusicPlayerImpl implements MusicPlayer {
             musicInstance.boomChannel = boomChannel;
 
             // Configure Music
+            AudioBackend backend = parrot.getAudioBackend();
             if(music.isPlaying()) {
-                music.setVolume(MIN_VOLUME);
+                backend.setMusicVolume(music, MIN_VOLUME);
+                backendCalls++;
             }
-            music.pause();
-            music.setPosition(0);
+            backend.pauseMusic(music);
+            backend.setMusicPosition(music, 0);
+            backendCalls += 2;
 
             return musicInstance;
         }
@@ -260,7 +284,8 @@ public class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void pauseMusic(ParrotMusicType musicType, boolean gracefully) {
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             if(musicInstance.musicType == musicType) {
                 pauseMusicInstance(musicInstance, gracefully);
             }
@@ -269,7 +294,8 @@ public class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void pauseMusicChannel(int channel, boolean gracefully) {
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             if(musicInstance.channel == channel) {
                 pauseMusicInstance(musicInstance, gracefully);
             }
@@ -295,7 +321,8 @@ public class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void resumeMusic(ParrotMusicType musicType, boolean gracefully) {
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             if(musicInstance.musicType == musicType) {
                 resumeMusicInstance(musicInstance, gracefully);
             }
@@ -304,7 +331,8 @@ public class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void resumeMusicChannel(int channel, boolean gracefully) {
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             if(musicInstance.channel == channel) {
                 resumeMusicInstance(musicInstance, gracefully);
             }
@@ -328,7 +356,8 @@ public class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void stopMusic(ParrotMusicType musicType, boolean gracefully) {
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             if(musicInstance.musicType == musicType) {
                 stopMusicInstance(musicInstance, gracefully);
             }
@@ -337,7 +366,8 @@ public class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void stopMusicChannel(int channel, boolean gracefully) {
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             if(musicInstance.channel == channel) {
                 stopMusicInstance(musicInstance, gracefully);
             }
@@ -346,7 +376,8 @@ public class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void stopAllMusic(boolean gracefully) {
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             stopMusicInstance(musicInstance, gracefully);
         }
     }
@@ -370,7 +401,8 @@ public class MusicPlayerImpl implements MusicPlayer {
     @Override
     public boolean isMusicPlaying() {
         if(isPowered()) {
-            for(MusicInstance musicInstance : musicInstances) {
+            for(int i = 0; i < musicInstances.size; i++) {
+                MusicInstance musicInstance = musicInstances.get(i);
                 if(musicInstance != null && musicInstance.state.isActive()) {
                     return true;
                 }
@@ -382,7 +414,8 @@ public class MusicPlayerImpl implements MusicPlayer {
     @Override
     public boolean isMusicPlaying(int channel) {
         if(isPowered()) {
-            for(MusicInstance musicInstance : musicInstances) {
+            for(int i = 0; i < musicInstances.size; i++) {
+                MusicInstance musicInstance = musicInstances.get(i);
                 if(musicInstance != null && musicInstance.channel == channel && musicInstance.state.isActive()) {
                     Music music = musicInstance.music;
                     return music != null && music.isPlaying();
@@ -395,7 +428,8 @@ public class MusicPlayerImpl implements MusicPlayer {
     @Override
     public ParrotMusicType getCurrentMusic(int channel) {
         if(isPowered()) {
-            for(MusicInstance musicInstance : musicInstances) {
+            for(int i = 0; i < musicInstances.size; i++) {
+                MusicInstance musicInstance = musicInstances.get(i);
                 if(musicInstance != null && musicInstance.channel == channel && musicInstance.state.isActive()) {
                     return musicInstance.musicType;
                 }
@@ -407,19 +441,26 @@ public class MusicPlayerImpl implements MusicPlayer {
     /**
      * Returns whether or not this player is powered or not.
      */
+    @Override
+    public void collectStats(ParrotStats stats) {
+        stats.addBackendCalls(backendCalls);
+        backendCalls = 0;
+    }
+
     private boolean isPowered() {
         return this.masterVolume > 0.000001f; // -120db
     }
 
     @Override
     public void dispose() {
-        for(MusicInstance musicInstance : musicInstances) {
+        for(int i = 0; i < musicInstances.size; i++) {
+            MusicInstance musicInstance = musicInstances.get(i);
             Music music = musicInstance.music;
             if(music != null && music.isPlaying()) {
-                music.stop();
+                parrot.getAudioBackend().stopMusic(music);
             }
         }
-        Pools.freeAll(musicInstances);
+        musicInstancePool.freeAll(musicInstances);
         musicInstances.clear();
     }
 
@@ -0,0 +1,535 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectFloatMap;
+import com.badlogic.gdx.utils.Pool;
+import com.rafaskoberg.boom.Boom;
+import com.rafaskoberg.gdx.parrot.Parrot;
+import com.rafaskoberg.gdx.parrot.ParrotSettings;
+import com.rafaskoberg.gdx.parrot.ParrotStats;
+import com.rafaskoberg.gdx.parrot.ParrotTracer;
+import com.rafaskoberg.gdx.parrot.util.ParrotRandom;
+import com.rafaskoberg.gdx.parrot.util.ParrotUtils;
+
+/**
+ * Base of the {@link SoundPlayer}s in this package, handling everything that doesn't depend on how the state of each sound is stored:
+ * creating sounds, sharing continuous sounds, coalescing and admitting plays, voice groups, requests queued from other threads, accumulated
+ * continuous positions, sound durations and stats. Subclasses store the sounds and run the update loop over them.
+ */
+abstract class AbstractSoundPlayer implements SoundPlayer {
+    // Collections
+    protected final Array<SoundInstance> soundInstances;
+    protected final SoundHandleTable handles;
+    protected final Array<SoundInstance> continuousSounds;
+    protected final ObjectFloatMap<ParrotSoundCategory> pitchFactorsByCategory;
+    protected final Pool<SoundInstance> soundInstancePool;
+
+    // Members
+    protected final Parrot parrot;
+    protected final ParrotSettings settings;
+    protected final Vector2 listenerPosition;
+    protected final Vector2 tmpVec;
+    protected final SoundVoiceLimiter voiceLimiter;
+    protected final SoundDurationCache durationCache;
+    protected final ParrotRandom random;
+    protected final SoundRequestQueue requestQueue;
+    protected final SoundRequestQueue.SoundRequest request;
+    protected long nextSequence;
+    protected float rawVolume;
+    protected float masterVolume;
+
+    // Stats
+    protected int removedVoices;
+    protected int backendCalls;
+
+    protected AbstractSoundPlayer(Parrot parrot) {
+        // Collections
+        this.soundInstances = new Array<>();
+        this.handles = new SoundHandleTable();
+        this.continuousSounds = new Array<>();
+        this.pitchFactorsByCategory = new ObjectFloatMap<>();
+        this.soundInstancePool = new Pool<SoundInstance>() {
+            @Override
+            protected SoundInstance newObject() {
+                return newSoundInstance();
+            }
+        };
+
+        // Members
+        this.parrot = parrot;
+        this.settings = parrot.getSettings();
+        this.listenerPosition = new Vector2();
+        this.tmpVec = new Vector2();
+        this.voiceLimiter = new SoundVoiceLimiter(settings, listenerPosition);
+        this.durationCache = new SoundDurationCache();
+        this.random = new ParrotRandom();
+        this.requestQueue = new SoundRequestQueue(SoundRequestQueue.DEFAULT_CAPACITY);
+        this.request = new SoundRequestQueue.SoundRequest();
+        this.nextSequence = 0;
+        this.rawVolume = 1.0f;
+        this.masterVolume = 1.0f;
+    }
+
+    /**
+     * Creates a new {@link SoundInstance} to be pooled by this player.
+     */
+    protected abstract SoundInstance newSoundInstance();
+
+    /**
+     * Stores the state of a new sound and adds its handle, obtained from {@link #soundInstancePool}, to {@link #soundInstances}. The ID,
+     * groups and voice limits are handled by the caller.
+     */
+    protected abstract SoundInstance addSound(Sound sound, ParrotSoundType type, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel);
+
+    /**
+     * Plays the given sound on the backend right away, calculating its attributes the same way {@link #updateSounds(float)} would. Does
+     * nothing if it's not waiting to be played.
+     */
+    protected abstract void startImmediately(SoundInstance soundInstance);
+
+    /**
+     * Moves the given sound to the given coordinates.
+     */
+    protected abstract void setSoundPosition(SoundInstance soundInstance, float x, float y);
+
+    /**
+     * Adds the given difference to the pitch of the given sound, updating the backend in case it's being played.
+     */
+    protected abstract void addSoundPitch(SoundInstance soundInstance, float pitchDifference);
+
+    /**
+     * Stops the given sound, letting it fade out, without notifying the {@link ParrotTracer}. Used whenever the sound has been reported
+     * with a more specific event, such as being stolen or having expired, so the stop isn't reported twice.
+     */
+    protected abstract void fadeOutSound(SoundInstance soundInstance);
+
+    @Override
+    public float getSoundPlayerVolume() {
+        return rawVolume;
+    }
+
+    @Override
+    public void setSoundPlayerVolume(float volume) {
+        this.rawVolume = MathUtils.clamp(volume, 0, 1);
+        this.masterVolume = ParrotUtils.getPerceivedVolume(rawVolume, settings.loudnessExponentialCurve);
+    }
+
+    @Override
+    public Vector2 getSpatialListenerCoordinates() {
+        return listenerPosition;
+    }
+
+    @Override
+    public void setSpatialListenerCoordinates(float x, float y) {
+        listenerPosition.set(x, y);
+    }
+
+    /**
+     * Solidifies the positions accumulated by continuous sounds to whichever position is closer to the camera center.
+     */
+    protected void solidifyContinuousPositions(float centerX, float centerY, float delta) {
+        for(int i = 0; i < continuousSounds.size; i++) {
+            SoundInstance soundInstance = continuousSounds.get(i);
+            int positionAmount = soundInstance.continuousPositions;
+            float minDiffX = soundInstance.continuousMinDiffX;
+            float minDiffY = soundInstance.continuousMinDiffY;
+
+            // Calculate average
+            float avgX = soundInstance.continuousSumX / positionAmount;
+            float avgY = soundInstance.continuousSumY / positionAmount;
+
+            // Check if average is closer to the camera than any other single position
+            float avgDiffX = avgX - centerX;
+            float avgDiffY = avgY - centerY;
+            if(Math.abs(avgDiffX) < Math.abs(minDiffX)) minDiffX = avgDiffX;
+            if(Math.abs(avgDiffY) < Math.abs(minDiffY)) minDiffY = avgDiffY;
+
+            // Calculate new position
+            float oldX = soundInstance.getPositionX();
+            float oldY = soundInstance.getPositionY();
+            float newX = centerX + minDiffX;
+            float newY = centerY + minDiffY;
+
+            // Limit sound speed
+            tmpVec.set(newX, newY).sub(oldX, oldY).limit(settings.soundContinuousSpeed * delta);
+            newX = oldX + tmpVec.x;
+            newY = oldY + tmpVec.y;
+
+            // Apply final position to sound
+            float finalX = (oldX + newX) / 2f;
+            float finalY = (oldY + newY) / 2f;
+            setSoundPosition(soundInstance, finalX, finalY);
+
+            // Clear accumulated positions
+            soundInstance.continuousPositions = 0;
+        }
+        continuousSounds.clear();
+    }
+
+    @Override
+    public long playSound(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
+        return createSound(-1, type, soundIndex, x, y, volumeFactor, pitch, mode, boomChannel, type.isImmediate());
+    }
+
+    @Override
+    public long playSoundImmediately(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
+        return createSound(-1, type, soundIndex, x, y, volumeFactor, pitch, mode, boomChannel, true);
+    }
+
+    @Override
+    public long queuePlaySound(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
+        return requestQueue.offerPlay(handles, type, soundIndex, x, y, volumeFactor, pitch, mode, boomChannel);
+    }
+
+    @Override
+    public boolean queueStopSound(long id) {
+        return requestQueue.offerStop(id);
+    }
+
+    @Override
+    public boolean queueSoundCoordinates(long id, float x, float y) {
+        return requestQueue.offerCoordinates(id, x, y);
+    }
+
+    /**
+     * Creates and registers a new sound, under the given reserved ID or under a new one in case it's -1. Immediate sounds are played right
+     * away instead of on the next update.
+     */
+    private long createSound(long reservedId, ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel, boolean immediate) {
+        // Make sure PlaybackMode is valid
+        if(mode == null) mode = type.getPlaybackMode();
+        if(mode == null) mode = PlaybackMode.NORMAL;
+
+        // Sanitize sound index
+        soundIndex = Math.min(soundIndex, type.getSounds().size - 1);
+
+        // If sound is continuous, see if there's an active one
+        if(mode == PlaybackMode.CONTINUOUS) {
+            SoundInstance soundInstance = voiceLimiter.getContinuousSound(type);
+            if(soundInstance != null && soundInstance.isActive()) {
+                touchSound(soundInstance);
+                // Sound is active, return shared ID
+                return soundInstance.getId();
+            }
+        }
+
+        // If sound is normal, see if there's one that has just started nearby to merge this play into
+        if(mode == PlaybackMode.NORMAL) {
+            SoundInstance soundInstance = voiceLimiter.getCoalescibleSound(type, x, y);
+            if(soundInstance != null) {
+                soundInstance.coalesce(volumeFactor, settings.soundCoalesceMaxVolumeBoost);
+                return soundInstance.getId();
+            }
+        }
+
+        // Refuse play in case there are no voices left for it
+        if(!voiceLimiter.admit(type, x, y, volumeFactor, mode)) {
+            return -1;
+        }
+
+        // Ensure we have a sound to play
+        Array<Sound> sounds = type.getSounds();
+        if(sounds == null || sounds.isEmpty()) {
+            return -1;
+        }
+
+        // Get random sound
+        final Sound sound;
+        if(soundIndex > 0) {
+            sound = sounds.get(soundIndex);
+        } else if(type.getNonRandomShuffle() != null) {
+            sound = type.getNonRandomShuffle().get();
+        } else {
+            sound = random.random(type.getSounds());
+        }
+
+        // Ensure sound is valid
+        if(sound == null) {
+            return -1;
+        }
+
+        // Calculate pitch
+        pitch = pitch * type.getPitch();
+
+        // Create SoundInstance
+        long id = reservedId != (long) -1 ? reservedId : handles.allocate();
+        SoundInstance soundInstance = addSound(sound, type, x, y, volumeFactor, pitch, mode, boomChannel);
+        soundInstance.id = id;
+        soundInstance.sequence = nextSequence++;
+
+        // Register SoundInstance
+        registerSound(soundInstance);
+
+        // Play sound right away, unless it has just been stolen
+        if(immediate) {
+            startImmediately(soundInstance);
+        }
+
+        // Return external ID
+        return id;
+    }
+
+    /**
+     * Registers the given sound under its ID and in its voice groups, limiting the voices of its type and category.
+     */
+    private void registerSound(SoundInstance soundInstance) {
+        // Add sound to handles
+        handles.register(soundInstance.id, soundInstance);
+
+        // Add sound to voice groups
+        voiceLimiter.register(soundInstance);
+
+        // Trace sound
+        ParrotTracer tracer = parrot.getTracer();
+        if(tracer != null) tracer.soundPlayed(soundInstance);
+
+        // Limit voices
+        voiceLimiter.limitVoices(soundInstance.getType(), this, tracer);
+    }
+
+    /**
+     * Notifies the {@link ParrotTracer}, if any, that the given sound has been explicitly stopped and is fading out.
+     */
+    protected void traceStopped(SoundInstance soundInstance) {
+        ParrotTracer tracer = parrot.getTracer();
+        if(tracer != null) tracer.soundStopped(soundInstance);
+    }
+
+    /**
+     * Notifies the {@link ParrotTracer}, if any, that the given sound has expired.
+     */
+    protected void traceExpired(SoundInstance soundInstance) {
+        ParrotTracer tracer = parrot.getTracer();
+        if(tracer != null) tracer.soundExpired(soundInstance);
+    }
+
+    /**
+     * Notifies the {@link ParrotTracer}, if any, that the given sound has been killed.
+     */
+    protected void traceKilled(SoundInstance soundInstance) {
+        ParrotTracer tracer = parrot.getTracer();
+        if(tracer != null) tracer.soundKilled(soundInstance);
+    }
+
+    /**
+     * Removes the given sound from its ID, its voice groups and the accumulated continuous positions. Subclasses remove it from their own
+     * collections.
+     */
+    protected void detachSound(SoundInstance soundInstance) {
+        // Remove from collections
+        handles.release(soundInstance.id);
+
+        // Remove from voice groups
+        voiceLimiter.unregister(soundInstance);
+
+        // Remove accumulated continuous positions
+        if(soundInstance.continuousPositions > 0) {
+            continuousSounds.removeValue(soundInstance, true);
+            soundInstance.continuousPositions = 0;
+        }
+    }
+
+    @Override
+    public SoundInstance getSound(long internalId) {
+        return handles.get(internalId);
+    }
+
+    @Override
+    public Array<SoundInstance> getAllSounds() {
+        return soundInstances;
+    }
+
+    @Override
+    public void setSoundCoordinates(SoundInstance soundInstance, float x, float y) {
+        if(soundInstance != null) {
+            // Ignore dying sounds
+            if(soundInstance.isDying()) return;
+
+            // Check if sound is continuous, and if so accumulate its position
+            if(soundInstance.getPlaybackMode() == PlaybackMode.CONTINUOUS) {
+                float diffX = x - listenerPosition.x;
+                float diffY = y - listenerPosition.y;
+                if(soundInstance.continuousPositions == 0) {
+                    continuousSounds.add(soundInstance);
+                    soundInstance.continuousSumX = x;
+                    soundInstance.continuousSumY = y;
+                    soundInstance.continuousMinDiffX = diffX;
+                    soundInstance.continuousMinDiffY = diffY;
+                } else {
+                    soundInstance.continuousSumX += x;
+                    soundInstance.continuousSumY += y;
+                    if(Math.abs(diffX) < Math.abs(soundInstance.continuousMinDiffX)) soundInstance.continuousMinDiffX = diffX;
+                    if(Math.abs(diffY) < Math.abs(soundInstance.continuousMinDiffY)) soundInstance.continuousMinDiffY = diffY;
+                }
+                soundInstance.continuousPositions++;
+            }
+
+            // Otherwise set position directly
+            else {
+                setSoundPosition(soundInstance, x, y);
+            }
+        }
+    }
+
+    @Override
+    public void stopSound(ParrotSoundType type, boolean ignorePersistent) {
+        if(type == null) return;
+        stopSounds(voiceLimiter.findTypeGroup(type), ignorePersistent);
+    }
+
+    @Override
+    public void stopSound(ParrotSoundCategory category, boolean ignorePersistent) {
+        if(category == null) return;
+        stopSounds(voiceLimiter.findCategoryGroup(category), ignorePersistent);
+    }
+
+    /**
+     * Stops all sounds of the given {@link SoundVoiceGroup}, which might be {@code null}. Only members of the group are visited.
+     */
+    private void stopSounds(SoundVoiceGroup group, boolean ignorePersistent) {
+        if(group == null) return;
+        Array<SoundInstance> groupSounds = group.soundInstances;
+        for(int i = 0; i < groupSounds.size; i++) {
+            SoundInstance soundInstance = groupSounds.get(i);
+            if(ignorePersistent && soundInstance.isPersistent()) continue;
+            stopSound(soundInstance);
+        }
+    }
+
+    @Override
+    public void stopAllSounds(boolean ignorePersistent) {
+        for(int i = 0; i < soundInstances.size; i++) {
+            SoundInstance soundInstance = soundInstances.get(i);
+            if(ignorePersistent && soundInstance.isPersistent()) continue;
+            stopSound(soundInstance);
+        }
+    }
+
+    @Override
+    public float getSoundCategoryPitchFactor(ParrotSoundCategory category) {
+        return pitchFactorsByCategory.get(category, 1);
+    }
+
+    @Override
+    public void setSoundCategoryPitchFactor(ParrotSoundCategory category, float pitchFactor) {
+        // Update factor
+        float oldPitchFactor = pitchFactorsByCategory.get(category, 1);
+        pitchFactorsByCategory.put(category, pitchFactor);
+        float pitchDifference = pitchFactor - oldPitchFactor;
+
+        // Apply difference to ongoing sounds of the category
+        SoundVoiceGroup group = voiceLimiter.findCategoryGroup(category);
+        if(group != null && !MathUtils.isZero(pitchDifference)) {
+            Array<SoundInstance> groupSounds = group.soundInstances;
+            for(int i = 0; i < groupSounds.size; i++) {
+                addSoundPitch(groupSounds.get(i), pitchDifference);
+            }
+        }
+    }
+
+    @Override
+    public void killSound(ParrotSoundType type) {
+        if(type == null) return;
+        killSounds(voiceLimiter.findTypeGroup(type));
+    }
+
+    @Override
+    public void killSound(ParrotSoundCategory category) {
+        if(category == null) return;
+        killSounds(voiceLimiter.findCategoryGroup(category));
+    }
+
+    /**
+     * Instantly kills all sounds of the given {@link SoundVoiceGroup}, which might be {@code null}. Only members of the group are visited,
+     * last to first, since killing a sound swaps the last member into its slot.
+     */
+    private void killSounds(SoundVoiceGroup group) {
+        if(group == null) return;
+        Array<SoundInstance> groupSounds = group.soundInstances;
+        for(int i = groupSounds.size - 1; i >= 0; i--) {
+            killSound(groupSounds.get(i));
+        }
+    }
+
+    @Override
+    public float getSoundDuration(Sound sound) {
+        return durationCache.get(sound, settings.soundDurationOnUnsupportedPlatforms);
+    }
+
+    @Override
+    public void setSoundDuration(Sound sound, float duration) {
+        durationCache.put(sound, duration);
+    }
+
+    @Override
+    public void forgetSound(Sound sound) {
+        durationCache.remove(sound);
+    }
+
+    @Override
+    public void setRandomSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    @Override
+    public VoiceStealPolicy getVoiceStealPolicy() {
+        return voiceLimiter.getStealPolicy();
+    }
+
+    @Override
+    public void setVoiceStealPolicy(VoiceStealPolicy stealPolicy) {
+        voiceLimiter.setStealPolicy(stealPolicy);
+    }
+
+    @Override
+    public void setBoom(Boom boom) {
+        parrot.getAudioBackend().setBoom(boom);
+    }
+
+    /**
+     * Writes the counters shared by all players to the given {@link ParrotStats} and resets them. Subclasses write their voice counts.
+     */
+    @Override
+    public void collectStats(ParrotStats stats) {
+        stats.setRemovedVoices(voiceLimiter.takeStolenVoices(), removedVoices);
+        stats.setRejectedPlays(voiceLimiter.takeRejectedPlays());
+        stats.setBackendCalls(backendCalls);
+        voiceLimiter.collectCategoryVoices(stats);
+        removedVoices = 0;
+        backendCalls = 0;
+    }
+
+    /**
+     * Processes all requests queued from other threads since the last update.
+     */
+    protected void drainRequests() {
+        while(requestQueue.poll(request)) {
+            switch(request.kind) {
+                case SoundRequestQueue.PLAY:
+                    long id = createSound(request.id, request.type, request.soundIndex, request.x, request.y, request.volumeFactor, request.pitch, request.mode, request.boomChannel, false);
+                    if(id != request.id) handles.release(request.id);
+                    break;
+                case SoundRequestQueue.STOP:
+                    stopSound(request.id);
+                    break;
+                case SoundRequestQueue.COORDINATES:
+                    setSoundCoordinates(request.id, request.x, request.y);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        soundInstancePool.freeAll(soundInstances);
+        soundInstances.clear();
+        handles.clear();
+        continuousSounds.clear();
+        voiceLimiter.clear();
+        durationCache.clear();
+    }
+
+}
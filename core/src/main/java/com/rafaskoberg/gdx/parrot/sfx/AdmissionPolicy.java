@@ -0,0 +1,25 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+/**
+ * List of ways a new play of a {@link ParrotSoundType} can be admitted once its type or {@link ParrotSoundCategory} has no voices left.
+ * Rejected plays return -1 right away, without creating a {@link SoundInstance} or calling the backend.
+ */
+public enum AdmissionPolicy {
+
+    /**
+     * Default mode, new plays are always admitted and voices are stolen as needed, which might include the new play itself.
+     */
+    ALWAYS,
+
+    /**
+     * New plays are rejected in case they would be the first voice stolen, according to the {@link VoiceStealPolicy} of the sound player.
+     * Useful for low priority sounds that shouldn't replace equal or more important ones, such as debris.
+     */
+    REJECT_IF_VICTIM,
+
+    /**
+     * New plays are rejected whenever there are no voices left, regardless of the voices already playing. Useful for spammed sounds that
+     * don't need to be fresh, such as UI hovers.
+     */
+    REJECT_IF_FULL
+}
@@ -0,0 +1,30 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+/**
+ * {@link VoiceStealPolicy} that steals the least audible voices first. Voices are scored by their current volume, which already accounts
+ * for distance and fades, weighted by their {@link SoundInstance#getPriority() priority} and by how long they have been playing. A loud
+ * sound right next to the listener survives an inaudible one far away, even if they share the same priority.
+ */
+public class AudibilityStealPolicy implements VoiceStealPolicy {
+
+    /**
+     * Factor applied to the score of a voice for each priority level it has, so higher priority voices are harder to steal. Defaults to 2
+     */
+    public float priorityWeight = 2;
+
+    /**
+     * Time in seconds after which the score of a voice is halved, so older voices are easier to steal. Aging is disabled if this is not
+     * positive. Defaults to 2
+     */
+    public float ageHalfLife = 2;
+
+    @Override
+    public float getStealScore(SoundInstance soundInstance) {
+        float score = soundInstance.getCurrentVolume();
+        int priority = soundInstance.getPriority();
+        if(priority != 0) score *= (float) Math.pow(priorityWeight, priority);
+        if(ageHalfLife > 0) score *= (float) Math.pow(2, -soundInstance.getTime() / ageHalfLife);
+        return score;
+    }
+
+}
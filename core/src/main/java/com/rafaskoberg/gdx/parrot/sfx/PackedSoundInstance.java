@@ -0,0 +1,150 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Thin {@link SoundInstance} handle used by {@link PackedSoundPlayer}. The state of the sound lives in the parallel arrays of the player,
+ * and is read and written through the slot of this handle. Once the sound is killed, the handle behaves like an invalid instance.
+ */
+final class PackedSoundInstance extends SoundInstance {
+    PackedSoundPlayer player;
+    int slot;
+
+    // REMINDER: Reset members
+
+    @Override
+    public Sound getSound() {
+        return slot < 0 ? null : player.sounds[slot];
+    }
+
+    @Override
+    public long getInternalId() {
+        return slot < 0 ? -1 : player.internalIds[slot];
+    }
+
+    @Override
+    public ParrotSoundType getType() {
+        return slot < 0 ? null : player.types[slot];
+    }
+
+    @Override
+    public PlaybackMode getPlaybackMode() {
+        return slot < 0 ? PlaybackMode.NORMAL : player.playbackModes[slot];
+    }
+
+    @Override
+    public float getPositionX() {
+        return slot < 0 ? 0 : player.positionsX[slot];
+    }
+
+    @Override
+    public float getPositionY() {
+        return slot < 0 ? 0 : player.positionsY[slot];
+    }
+
+    @Override
+    public float getCurrentVolume() {
+        return slot < 0 ? 1 : player.currentVolumes[slot];
+    }
+
+    @Override
+    public float getCurrentPan() {
+        return slot < 0 ? 0 : player.currentPans[slot];
+    }
+
+    @Override
+    public float getDuration() {
+        return slot < 0 ? 0 : player.durations[slot];
+    }
+
+    @Override
+    public void setDuration(float duration) {
+        if(slot >= 0) player.durations[slot] = duration;
+    }
+
+    @Override
+    public float getPitch() {
+        return slot < 0 ? 1 : player.pitches[slot];
+    }
+
+    @Override
+    public void setPitch(float pitch) {
+        if(slot >= 0 && player.sounds[slot] != null) player.setSlotPitch(slot, pitch);
+    }
+
+    @Override
+    public float getVolumeFactor() {
+        return slot < 0 ? 1 : player.volumeFactors[slot];
+    }
+
+    @Override
+    public void setVolumeFactor(float volumeFactor) {
+        if(slot >= 0) player.volumeFactors[slot] = volumeFactor;
+    }
+
+    @Override
+    public int getBoomChannel() {
+        return slot < 0 ? -1 : player.boomChannels[slot];
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return slot >= 0 && (player.flags[slot] & PackedSoundPlayer.FLAG_PERSISTENT) != 0;
+    }
+
+    @Override
+    public void setPersistent(boolean persistent) {
+        if(slot < 0) return;
+        if(persistent) {
+            player.flags[slot] |= PackedSoundPlayer.FLAG_PERSISTENT;
+        } else {
+            player.flags[slot] &= ~PackedSoundPlayer.FLAG_PERSISTENT;
+        }
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return false;
+    }
+
+    @Override
+    public boolean isValid() {
+        return slot >= 0 && player.isValid(slot);
+    }
+
+    @Override
+    boolean isDying() {
+        return slot >= 0 && (player.flags[slot] & PackedSoundPlayer.FLAG_DYING) != 0;
+    }
+
+    @Override
+    public int getPriority() {
+        return slot < 0 ? 0 : player.priorities[slot];
+    }
+
+    @Override
+    public void setPriority(int priority) {
+        if(slot >= 0) player.priorities[slot] = priority;
+    }
+
+    @Override
+    public float getTime() {
+        return slot < 0 ? 0 : player.times[slot];
+    }
+
+    @Override
+    protected boolean isExpired() {
+        if(slot < 0) return false;
+        boolean looping = (player.flags[slot] & PackedSoundPlayer.FLAG_LOOPING) != 0;
+        float duration = player.durations[slot];
+        return !looping && !MathUtils.isZero(duration) && player.times[slot] > duration;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.player = null;
+        this.slot = -1;
+    }
+}
@@ -0,0 +1,563 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.math.MathUtils;
+import com.rafaskoberg.gdx.parrot.Parrot;
+import com.rafaskoberg.gdx.parrot.ParrotStats;
+import com.rafaskoberg.gdx.parrot.backend.AudioBackend;
+
+import java.util.Arrays;
+
+/**
+ * Spatial sound player that keeps the state of every voice in parallel primitive arrays, so the distance, pan and fade calculations run as
+ * tight loops over contiguous memory. Meant for games tracking thousands of sounds at once.
+ * <p>
+ * {@link SoundInstance}s returned by this player are thin handles reading from those arrays, so the {@link SoundPlayer} API remains the
+ * same. To use this player, extend {@link Parrot} and assign it to {@code soundPlayer} in the constructor.
+ * <p>
+ * Unlike {@link SoundPlayerImpl}, this player doesn't support virtual voices, always sends volume and pan to the backend, and talks to the
+ * {@link AudioBackend} directly instead of buffering commands until {@link #flushSounds()}.
+ */
+public class PackedSoundPlayer extends AbstractSoundPlayer {
+    static final int FLAG_PLAY_ME = 1;
+    static final int FLAG_DYING = 1 << 1;
+    static final int FLAG_SPATIAL = 1 << 2;
+    static final int FLAG_LOOPING = 1 << 3;
+    static final int FLAG_CONTINUOUS = 1 << 4;
+    static final int FLAG_PERSISTENT = 1 << 5;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Voice state
+    int size;
+    long[] internalIds;
+    int[] flags;
+    int[] priorities;
+    int[] boomChannels;
+    float[] positionsX;
+    float[] positionsY;
+    float[] volumeFactors;
+    float[] volumeVariations;
+    float[] pitches;
+    float[] times;
+    float[] durations;
+    float[] currentVolumes;
+    float[] currentPans;
+    long[] lastTouches;
+    Sound[] sounds;
+    ParrotSoundType[] types;
+    PlaybackMode[] playbackModes;
+
+    // Attributes cached from sound types
+    private float[] typeVolumes;
+    private float[] continuityFactors;
+
+    // Per-frame scratch values
+    private float[] fadeInFactors;
+    private float[] lifeFactors;
+    private float[] distanceFactors;
+    private float[] pans;
+
+    public PackedSoundPlayer(Parrot parrot) {
+        super(parrot);
+
+        // Voice state
+        this.size = 0;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected SoundInstance newSoundInstance() {
+        return new PackedSoundInstance();
+    }
+
+    @Override
+    public void updateSounds(float delta) {
+        // Process requests queued from other threads
+        drainRequests();
+        handles.refill();
+
+        // Manually solidify continuous sounds positions
+        solidifyContinuousPositions(listenerPosition.x, listenerPosition.y, delta);
+
+        // Update the life cycle of all voices, killing the ones that are done
+        updateLifeCycles(delta);
+
+        // Calculate distance factors and pans
+        updateSpatialAttributes();
+
+        // Apply new attributes
+        updateVoices();
+    }
+
+    /**
+     * Checks timeouts, expirations and deaths of all voices, and calculates their fade factors.
+     */
+    private void updateLifeCycles(float delta) {
+        long now = settings.clock.millis();
+        float continuousTimeout = settings.soundContinuousTimeout;
+        float deathFadeOut = settings.soundDeathFadeOut;
+
+        for(int i = 0; i < size; i++) {
+            int flag = flags[i];
+            boolean continuous = (flag & FLAG_CONTINUOUS) != 0;
+
+            // Check if continuous sound should end
+            if(continuous && isActive(i)) {
+                float inactivityTime = (now - lastTouches[i]) / 1000f;
+                if(inactivityTime > continuousTimeout * continuityFactors[i]) {
+                    traceExpired(soundInstances.get(i));
+                    stopSlot(i);
+                }
+            }
+
+            // If sound has been played but has no internal ID, something terribly wrong happened to it. Kill sound!
+            if((flags[i] & FLAG_PLAY_ME) == 0 && internalIds[i] == (long) -1) {
+                killSlot(i);
+                i--;
+                continue;
+            }
+
+            // Calculate fade in factor
+            fadeInFactors[i] = calculateFadeInFactor(i);
+
+            // Kill expired sounds
+            if(isExpired(i) && (flags[i] & FLAG_DYING) == 0) {
+                traceExpired(soundInstances.get(i));
+                stopSlot(i);
+            }
+
+            // Update sound's time
+            times[i] += delta;
+
+            // Check if instance should be killed and removed
+            lifeFactors[i] = 1.0f;
+            if((flags[i] & FLAG_DYING) != 0) {
+                float deadTime = (now - lastTouches[i]) / 1000f;
+
+                // Check if sound should be killed and removed
+                if(deadTime > deathFadeOut) {
+                    killSlot(i);
+                    i--;
+                    continue;
+                }
+
+                // Otherwise calculate life factor
+                lifeFactors[i] = MathUtils.clamp(1.0f - (deadTime / deathFadeOut), 0.0f, 1.0f);
+            }
+        }
+    }
+
+    /**
+     * Returns the fade in factor of the voice in the given slot, which only applies to continuous sounds.
+     */
+    private float calculateFadeInFactor(int slot) {
+        if((flags[slot] & FLAG_CONTINUOUS) == 0) return 1.0f;
+        return MathUtils.clamp(times[slot] / (settings.soundContinuousFadeIn * continuityFactors[slot]), 0.0f, 1.0f);
+    }
+
+    /**
+     * Calculates the distance factor and pan of all voices in a single pass through the position arrays.
+     */
+    private void updateSpatialAttributes() {
+        for(int i = 0; i < size; i++) {
+            updateSpatialAttributes(i);
+        }
+    }
+
+    /**
+     * Calculates the distance factor and pan of the voice in the given slot.
+     */
+    private void updateSpatialAttributes(int slot) {
+        if((flags[slot] & FLAG_SPATIAL) == 0) {
+            distanceFactors[slot] = 1.0f;
+            pans[slot] = 0.0f;
+            return;
+        }
+
+        // Calculate distance factor
+        float dstX = positionsX[slot] - listenerPosition.x;
+        float dstY = positionsY[slot] - listenerPosition.y;
+        float dst = (float) Math.sqrt(dstX * dstX + dstY * dstY);
+        distanceFactors[slot] = settings.getDistanceRolloffFactor(dst);
+
+        // Calculate pan
+        float panFactorRaw = MathUtils.clamp(Math.abs(dstX / settings.soundPanLimit), 0.0f, 1.0f);
+        float pan = Interpolation.linear.apply(0.0f, settings.soundPanReduction, panFactorRaw);
+        pans[slot] = dstX < 0.0f ? -pan : pan;
+    }
+
+    /**
+     * Calculates the final volume of all voices, playing new ones and applying the changes to the ongoing ones.
+     */
+    private void updateVoices() {
+        AudioBackend backend = parrot.getAudioBackend();
+        for(int i = 0; i < size; i++) {
+            updateVoice(backend, i);
+        }
+    }
+
+    /**
+     * Calculates the final volume of the voice in the given slot from its factors, playing it if it's new or applying the changes
+     * otherwise.
+     */
+    private void updateVoice(AudioBackend backend, int slot) {
+        Sound sound = sounds[slot];
+        if(sound == null) return;
+        boolean playMe = (flags[slot] & FLAG_PLAY_ME) != 0;
+        boolean dying = (flags[slot] & FLAG_DYING) != 0;
+        float pan = pans[slot];
+
+        // Calculate volume variation
+        if(playMe) {
+            volumeVariations[slot] = types[slot].getVolumeVariation() * random.randomTriangular();
+        }
+
+        // Calculate volume
+        float allFactors = fadeInFactors[slot] * distanceFactors[slot] * lifeFactors[slot] * volumeFactors[slot];
+        float relativeVolume = settings.getPerceivedVolume(typeVolumes[slot] + volumeVariations[slot]);
+        float soundVolume = relativeVolume * allFactors;
+
+        // If sound is dying, keep the same pan and don't increase the volume
+        if(dying) {
+            soundVolume = Math.min(soundVolume, currentVolumes[slot]);
+            pan = currentPans[slot];
+        }
+
+        // Apply master volume
+        float finalVolume = soundVolume * masterVolume;
+
+        // If sound is waiting to be played, play it, otherwise just apply changes
+        if(playMe) {
+            flags[slot] &= ~FLAG_PLAY_ME;
+            internalIds[slot] = playSlot(backend, slot, finalVolume, pan);
+        } else {
+            backend.setSoundPan(sound, internalIds[slot], pan, finalVolume);
+        }
+        backendCalls++;
+
+        // Store volume and pan
+        currentVolumes[slot] = soundVolume;
+        currentPans[slot] = pan;
+    }
+
+    @Override
+    protected void startImmediately(SoundInstance soundInstance) {
+        int slot = ((PackedSoundInstance) soundInstance).slot;
+        if((flags[slot] & (FLAG_PLAY_ME | FLAG_DYING)) != FLAG_PLAY_ME) return;
+        fadeInFactors[slot] = calculateFadeInFactor(slot);
+        lifeFactors[slot] = 1.0f;
+        updateSpatialAttributes(slot);
+        updateVoice(parrot.getAudioBackend(), slot);
+    }
+
+    /**
+     * Plays the sound of the given slot through the backend, returning its internal ID.
+     */
+    private long playSlot(AudioBackend backend, int slot, float volume, float pan) {
+        ParrotSoundType soundType = types[slot];
+        ParrotSoundCategory category = soundType.getCategory();
+        boolean loop = (flags[slot] & FLAG_LOOPING) != 0;
+
+        // Apply random pitch variation to sound effect
+        float pitch = pitches[slot] + soundType.getPitchVariation() * random.randomTriangular();
+
+        // Apply category-based pitch factors
+        if(category != null) {
+            pitch *= pitchFactorsByCategory.get(category, 1);
+        }
+
+        return backend.playSound(sounds[slot], boomChannels[slot], volume, pitch, pan, loop);
+    }
+
+    @Override
+    protected SoundInstance addSound(Sound sound, ParrotSoundType type, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
+        // Create voice
+        int slot = size++;
+        ensureCapacity(size);
+        ParrotSoundCategory category = type.getCategory();
+        int flag = FLAG_PLAY_ME;
+        if(category != null && category.isSpatial()) flag |= FLAG_SPATIAL;
+        if(mode != PlaybackMode.NORMAL) flag |= FLAG_LOOPING;
+        if(mode == PlaybackMode.CONTINUOUS) flag |= FLAG_CONTINUOUS;
+        internalIds[slot] = -1;
+        flags[slot] = flag;
+        priorities[slot] = type.getPriority();
+        boomChannels[slot] = boomChannel;
+        positionsX[slot] = x;
+        positionsY[slot] = y;
+        volumeFactors[slot] = volumeFactor;
+        volumeVariations[slot] = 0.0f;
+        pitches[slot] = pitch;
+        times[slot] = 0.0f;
+        durations[slot] = getSoundDuration(sound);
+        currentVolumes[slot] = 1.0f;
+        currentPans[slot] = 0.0f;
+        lastTouches[slot] = settings.clock.millis();
+        sounds[slot] = sound;
+        types[slot] = type;
+        playbackModes[slot] = mode;
+        typeVolumes[slot] = type.getVolume();
+        continuityFactors[slot] = type.getContinuityFactor();
+
+        // Create handle
+        PackedSoundInstance soundInstance = (PackedSoundInstance) soundInstancePool.obtain();
+        soundInstance.player = this;
+        soundInstance.slot = slot;
+        soundInstances.add(soundInstance);
+        return soundInstance;
+    }
+
+    @Override
+    public boolean touchSound(SoundInstance soundInstance) {
+        int slot = getSlot(soundInstance);
+        if(slot < 0) return false;
+
+        // Touch instance
+        if(isActive(slot)) lastTouches[slot] = settings.clock.millis();
+
+        // Return flag indicating if instance is valid
+        return isValid(slot);
+    }
+
+    @Override
+    protected void setSoundPosition(SoundInstance soundInstance, float x, float y) {
+        int slot = getSlot(soundInstance);
+        if(slot < 0) return;
+        positionsX[slot] = x;
+        positionsY[slot] = y;
+    }
+
+    @Override
+    public void stopSound(SoundInstance soundInstance) {
+        int slot = getSlot(soundInstance);
+        if(slot < 0 || (flags[slot] & FLAG_DYING) != 0) return;
+        traceStopped(soundInstance);
+        stopSlot(slot);
+    }
+
+    @Override
+    protected void fadeOutSound(SoundInstance soundInstance) {
+        int slot = getSlot(soundInstance);
+        if(slot >= 0) stopSlot(slot);
+    }
+
+    @Override
+    protected void addSoundPitch(SoundInstance soundInstance, float pitchDifference) {
+        int slot = getSlot(soundInstance);
+        if(slot < 0) return;
+        pitches[slot] += pitchDifference;
+        if(sounds[slot] != null) {
+            setSlotPitch(slot, pitches[slot]);
+        }
+    }
+
+    @Override
+    public void killAllSounds() {
+        for(int i = size - 1; i >= 0; i--) {
+            killSlot(i);
+        }
+    }
+
+    @Override
+    public void killSound(SoundInstance soundInstance) {
+        int slot = getSlot(soundInstance);
+        if(slot >= 0) killSlot(slot);
+    }
+
+    @Override
+    public void collectStats(ParrotStats stats) {
+        int dyingVoices = 0;
+        for(int i = 0; i < size; i++) {
+            if((flags[i] & FLAG_DYING) != 0) dyingVoices++;
+        }
+        stats.setVoices(size, dyingVoices, 0);
+        super.collectStats(stats);
+    }
+
+    /**
+     * Changes the pitch of the sound being played in the given slot.
+     */
+    void setSlotPitch(int slot, float pitch) {
+        parrot.getAudioBackend().setSoundPitch(sounds[slot], internalIds[slot], pitch);
+        backendCalls++;
+    }
+
+    /**
+     * Returns whether or not the voice in the given slot is valid. That is, if it has been played already and its internal ID is valid.
+     */
+    boolean isValid(int slot) {
+        return !(internalIds[slot] == -1 && (flags[slot] & FLAG_PLAY_ME) == 0);
+    }
+
+    /**
+     * Returns whether or not the voice in the given slot is valid and active.
+     */
+    boolean isActive(int slot) {
+        return isValid(slot) && (flags[slot] & FLAG_DYING) == 0;
+    }
+
+    /**
+     * Returns whether or not the timer of the voice in the given slot has expired its duration.
+     */
+    private boolean isExpired(int slot) {
+        boolean looping = (flags[slot] & FLAG_LOOPING) != 0;
+        float duration = durations[slot];
+        return !looping && !MathUtils.isZero(duration) && times[slot] > duration;
+    }
+
+    /**
+     * Returns the slot of the given handle, or -1 if it's not a valid handle of this player.
+     */
+    private int getSlot(SoundInstance soundInstance) {
+        if(!(soundInstance instanceof PackedSoundInstance)) return -1;
+        PackedSoundInstance packedInstance = (PackedSoundInstance) soundInstance;
+        return packedInstance.player == this ? packedInstance.slot : -1;
+    }
+
+    /**
+     * Stops the voice in the given slot, letting it fade out.
+     */
+    private void stopSlot(int slot) {
+        if((flags[slot] & FLAG_DYING) != 0) return;
+        lastTouches[slot] = settings.clock.millis();
+        flags[slot] = (flags[slot] | FLAG_DYING) & ~FLAG_PLAY_ME;
+        voiceLimiter.release(soundInstances.get(slot));
+    }
+
+    /**
+     * Instantly kills the voice in the given slot, moving the last voice into it.
+     */
+    private void killSlot(int slot) {
+        PackedSoundInstance soundInstance = (PackedSoundInstance) soundInstances.get(slot);
+        traceKilled(soundInstance);
+
+        // Stop sound
+        if(sounds[slot] != null && internalIds[slot] != (long) -1) {
+            parrot.getAudioBackend().stopSound(sounds[slot], internalIds[slot]);
+            backendCalls++;
+        }
+        removedVoices++;
+
+        // Remove from collections
+        detachSound(soundInstance);
+
+        // Move last voice into this slot
+        int last = --size;
+        if(slot != last) {
+            moveSlot(last, slot);
+        }
+        soundInstances.pop();
+        sounds[last] = null;
+        types[last] = null;
+        playbackModes[last] = null;
+
+        // Free handle
+        soundInstancePool.free(soundInstance);
+    }
+
+    /**
+     * Copies all the state of the voice in one slot to another.
+     */
+    private void moveSlot(int from, int to) {
+        internalIds[to] = internalIds[from];
+        flags[to] = flags[from];
+        priorities[to] = priorities[from];
+        boomChannels[to] = boomChannels[from];
+        positionsX[to] = positionsX[from];
+        positionsY[to] = positionsY[from];
+        volumeFactors[to] = volumeFactors[from];
+        volumeVariations[to] = volumeVariations[from];
+        pitches[to] = pitches[from];
+        times[to] = times[from];
+        durations[to] = durations[from];
+        currentVolumes[to] = currentVolumes[from];
+        currentPans[to] = currentPans[from];
+        lastTouches[to] = lastTouches[from];
+        sounds[to] = sounds[from];
+        types[to] = types[from];
+        playbackModes[to] = playbackModes[from];
+        typeVolumes[to] = typeVolumes[from];
+        continuityFactors[to] = continuityFactors[from];
+        fadeInFactors[to] = fadeInFactors[from];
+        lifeFactors[to] = lifeFactors[from];
+        distanceFactors[to] = distanceFactors[from];
+        pans[to] = pans[from];
+
+        // Update handle
+        PackedSoundInstance soundInstance = (PackedSoundInstance) soundInstances.get(from);
+        soundInstance.slot = to;
+        soundInstances.set(to, soundInstance);
+    }
+
+    /**
+     * Makes sure all arrays can hold the given amount of voices.
+     */
+    private void ensureCapacity(int capacity) {
+        if(capacity <= flags.length) return;
+        int newCapacity = Math.max(capacity, flags.length * 2);
+        internalIds = Arrays.copyOf(internalIds, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        boomChannels = Arrays.copyOf(boomChannels, newCapacity);
+        positionsX = Arrays.copyOf(positionsX, newCapacity);
+        positionsY = Arrays.copyOf(positionsY, newCapacity);
+        volumeFactors = Arrays.copyOf(volumeFactors, newCapacity);
+        volumeVariations = Arrays.copyOf(volumeVariations, newCapacity);
+        pitches = Arrays.copyOf(pitches, newCapacity);
+        times = Arrays.copyOf(times, newCapacity);
+        durations = Arrays.copyOf(durations, newCapacity);
+        currentVolumes = Arrays.copyOf(currentVolumes, newCapacity);
+        currentPans = Arrays.copyOf(currentPans, newCapacity);
+        lastTouches = Arrays.copyOf(lastTouches, newCapacity);
+        sounds = Arrays.copyOf(sounds, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        playbackModes = Arrays.copyOf(playbackModes, newCapacity);
+        typeVolumes = Arrays.copyOf(typeVolumes, newCapacity);
+        continuityFactors = Arrays.copyOf(continuityFactors, newCapacity);
+        fadeInFactors = Arrays.copyOf(fadeInFactors, newCapacity);
+        lifeFactors = Arrays.copyOf(lifeFactors, newCapacity);
+        distanceFactors = Arrays.copyOf(distanceFactors, newCapacity);
+        pans = Arrays.copyOf(pans, newCapacity);
+    }
+
+    /**
+     * Allocates all arrays with the given capacity.
+     */
+    private void allocate(int capacity) {
+        internalIds = new long[capacity];
+        flags = new int[capacity];
+        priorities = new int[capacity];
+        boomChannels = new int[capacity];
+        positionsX = new float[capacity];
+        positionsY = new float[capacity];
+        volumeFactors = new float[capacity];
+        volumeVariations = new float[capacity];
+        pitches = new float[capacity];
+        times = new float[capacity];
+        durations = new float[capacity];
+        currentVolumes = new float[capacity];
+        currentPans = new float[capacity];
+        lastTouches = new long[capacity];
+        sounds = new Sound[capacity];
+        types = new ParrotSoundType[capacity];
+        playbackModes = new PlaybackMode[capacity];
+        typeVolumes = new float[capacity];
+        continuityFactors = new float[capacity];
+        fadeInFactors = new float[capacity];
+        lifeFactors = new float[capacity];
+        distanceFactors = new float[capacity];
+        pans = new float[capacity];
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        Arrays.fill(sounds, 0, size, null);
+        Arrays.fill(types, 0, size, null);
+        Arrays.fill(playbackModes, 0, size, null);
+        size = 0;
+    }
+
+}
@@ -15,4 +15,29 @@ public interface ParrotSoundCategory {
      * a 3D sensation. Note that spatial effects only work for mono sounds.
      */
     boolean isSpatial();
+
+    /**
+     * Returns the time window in seconds during which new plays of a sound type under this category are merged into an instance of the
+     * same type that has just started, instead of creating a new voice. Only applies to {@link PlaybackMode#NORMAL normal} sounds. Defaults
+     * to 0, which disables coalescing.
+     */
+    default float getCoalesceTime() {
+        return 0;
+    }
+
+    /**
+     * Returns the maximum distance between two plays of a spatial sound type under this category for them to be coalesced. Defaults to
+     * infinity.
+     */
+    default float getCoalesceRadius() {
+        return Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the {@link AdmissionPolicy} of sound types under this category, which decides whether new plays are admitted once there are
+     * no voices left. Defaults to {@link AdmissionPolicy#ALWAYS}.
+     */
+    default AdmissionPolicy getAdmissionPolicy() {
+        return AdmissionPolicy.ALWAYS;
+    }
 }
@@ -76,6 +76,44 @@ public interface ParrotSoundType {
         return 0;
     }
 
+    /**
+     * Returns whether or not sounds of this type are started on the backend as soon as they're played, instead of the next time the sound
+     * player is updated. Removes up to one frame of latency, which can be noticeable for hit feedback and rhythm mechanics. Defaults to
+     * false.
+     */
+    default boolean isImmediate() {
+        return false;
+    }
+
+    /**
+     * Returns the time window in seconds during which new plays of this sound type are merged into an instance that has just started,
+     * instead of creating a new voice. The merged instance gets louder with each play, according to
+     * {@link ParrotSettings#soundCoalesceMaxVolumeBoost}. Only applies to {@link PlaybackMode#NORMAL normal} sounds. Defaults to the value
+     * of its {@link ParrotSoundCategory}, or 0 in case there's none.
+     */
+    default float getCoalesceTime() {
+        ParrotSoundCategory category = getCategory();
+        return category == null ? 0 : category.getCoalesceTime();
+    }
+
+    /**
+     * Returns the maximum distance between two plays of this sound type for them to be coalesced, in case its category is spatial. Defaults
+     * to the value of its {@link ParrotSoundCategory}, or infinity in case there's none.
+     */
+    default float getCoalesceRadius() {
+        ParrotSoundCategory category = getCategory();
+        return category == null ? Float.POSITIVE_INFINITY : category.getCoalesceRadius();
+    }
+
+    /**
+     * Returns the {@link AdmissionPolicy} of this sound type, which decides whether new plays are admitted once this type or its category
+     * has no voices left. Defaults to the value of its {@link ParrotSoundCategory}, or {@link AdmissionPolicy#ALWAYS} in case there's none.
+     */
+    default AdmissionPolicy getAdmissionPolicy() {
+        ParrotSoundCategory category = getCategory();
+        return category == null ? AdmissionPolicy.ALWAYS : category.getAdmissionPolicy();
+    }
+
     /**
      * Returns the non random shuffle object of this sound type.
      * <li>The closer to 0 its factor is, the more random the sound index selection of a type will be.</li>
@@ -0,0 +1,247 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import com.badlogic.gdx.audio.Sound;
+import com.rafaskoberg.gdx.parrot.backend.AudioBackend;
+
+import java.util.Arrays;
+
+/**
+ * Per-frame buffer of commands to be sent to the {@link AudioBackend}. Starts and parameter changes are coalesced into a single command
+ * per {@link SoundInstance}, so several changes to the same voice result in one backend call. Stops capture the sound and its internal ID
+ * by value, since the instance may be freed before the buffer is flushed.
+ * <p>
+ * Sending commands never writes to the instances. Internal IDs returned by the backend are stored in the buffer, and only applied to the
+ * instances once all commands have been sent.
+ */
+class SoundCommandBuffer {
+    private static final int INITIAL_CAPACITY = 32;
+
+    // Command flags
+    private static final int FLAG_START = 1;
+    private static final int FLAG_LOOP = 1 << 1;
+    private static final int FLAG_PAN = 1 << 2;
+    private static final int FLAG_PITCH = 1 << 3;
+    private static final int FLAG_STOP = 1 << 4;
+
+    // Commands
+    private int size;
+    private int[] flags;
+    private SoundInstance[] soundInstances;
+    private Sound[] sounds;
+    private long[] internalIds;
+    private int[] boomChannels;
+    private float[] volumes;
+    private float[] pitches;
+    private float[] pans;
+    private long[] results;
+
+    SoundCommandBuffer() {
+        this.size = 0;
+        this.flags = new int[INITIAL_CAPACITY];
+        this.soundInstances = new SoundInstance[INITIAL_CAPACITY];
+        this.sounds = new Sound[INITIAL_CAPACITY];
+        this.internalIds = new long[INITIAL_CAPACITY];
+        this.boomChannels = new int[INITIAL_CAPACITY];
+        this.volumes = new float[INITIAL_CAPACITY];
+        this.pitches = new float[INITIAL_CAPACITY];
+        this.pans = new float[INITIAL_CAPACITY];
+        this.results = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the amount of commands waiting to be flushed.
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Schedules the given instance to start playing. Its internal ID is assigned once the buffer is flushed.
+     */
+    void start(SoundInstance soundInstance, float volume, float pitch, float pan, boolean loop) {
+        int index = getCommand(soundInstance);
+        flags[index] = FLAG_START | (loop ? FLAG_LOOP : 0);
+        sounds[index] = soundInstance.sound;
+        boomChannels[index] = soundInstance.boomChannel;
+        volumes[index] = volume;
+        pitches[index] = pitch;
+        pans[index] = pan;
+        soundInstance.startPending = true;
+    }
+
+    /**
+     * Schedules a pan and volume change for the given instance. Folded into its start command, in case it hasn't started yet.
+     */
+    void setPan(SoundInstance soundInstance, float pan, float volume) {
+        if(soundInstance.internalId == (long) -1 && !soundInstance.startPending) return;
+        int index = getCommand(soundInstance);
+        if((flags[index] & FLAG_START) == 0) flags[index] |= FLAG_PAN;
+        volumes[index] = volume;
+        pans[index] = pan;
+    }
+
+    /**
+     * Schedules a pitch change for the given instance. Folded into its start command, in case it hasn't started yet.
+     */
+    void setPitch(SoundInstance soundInstance, float pitch) {
+        if(soundInstance.internalId == (long) -1 && !soundInstance.startPending) return;
+        int index = getCommand(soundInstance);
+        if((flags[index] & FLAG_START) == 0) flags[index] |= FLAG_PITCH;
+        pitches[index] = pitch;
+    }
+
+    /**
+     * Schedules the given instance to stop. Pending commands of the instance are dropped, including its start.
+     */
+    void stop(SoundInstance soundInstance) {
+        cancel(soundInstance);
+        if(soundInstance.sound == null || soundInstance.internalId == (long) -1) return;
+        int index = add(null);
+        flags[index] = FLAG_STOP;
+        sounds[index] = soundInstance.sound;
+        internalIds[index] = soundInstance.internalId;
+    }
+
+    /**
+     * Drops all pending commands of the given instance. Must be called before the instance is freed.
+     */
+    void cancel(SoundInstance soundInstance) {
+        int index = soundInstance.commandIndex;
+        if(index >= 0) {
+            flags[index] = 0;
+            soundInstances[index] = null;
+            soundInstance.commandIndex = -1;
+        }
+        soundInstance.startPending = false;
+    }
+
+    /**
+     * Sends all pending commands to the given {@link AudioBackend}, in the order they were first scheduled, and clears the buffer.
+     *
+     * @return The amount of backend calls made.
+     */
+    int flush(AudioBackend backend) {
+        int calls = 0;
+        for(int i = 0; i < size; i++) {
+            calls += send(i, backend);
+        }
+        for(int i = 0; i < size; i++) {
+            applyResult(i);
+        }
+        clear();
+        return calls;
+    }
+
+    /**
+     * Sends the pending command of the given instance to the given {@link AudioBackend} right away, leaving the commands of other instances
+     * in the buffer.
+     *
+     * @return The amount of backend calls made.
+     */
+    int flush(SoundInstance soundInstance, AudioBackend backend) {
+        int index = soundInstance.commandIndex;
+        if(index < 0) return 0;
+        int calls = send(index, backend);
+        applyResult(index);
+        flags[index] = 0;
+        soundInstances[index] = null;
+        sounds[index] = null;
+        return calls;
+    }
+
+    /**
+     * Sends the command at the given index to the given {@link AudioBackend}. The internal ID of started sounds is stored as the result of
+     * the command, to be applied by {@link #applyResult(int)}.
+     *
+     * @return The amount of backend calls made.
+     */
+    private int send(int index, AudioBackend backend) {
+        int calls = 0;
+        int commandFlags = flags[index];
+
+        if((commandFlags & FLAG_START) != 0) {
+            boolean loop = (commandFlags & FLAG_LOOP) != 0;
+            results[index] = backend.playSound(sounds[index], boomChannels[index], volumes[index], pitches[index], pans[index], loop);
+            calls++;
+        } else if((commandFlags & FLAG_STOP) != 0) {
+            backend.stopSound(sounds[index], internalIds[index]);
+            calls++;
+        } else {
+            if((commandFlags & FLAG_PAN) != 0) {
+                backend.setSoundPan(sounds[index], internalIds[index], pans[index], volumes[index]);
+                calls++;
+            }
+            if((commandFlags & FLAG_PITCH) != 0) {
+                backend.setSoundPitch(sounds[index], internalIds[index], pitches[index]);
+                calls++;
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Detaches the command at the given index from its instance, assigning the internal ID of started sounds. Does nothing if the instance
+     * has been cancelled in the meantime.
+     */
+    private void applyResult(int index) {
+        SoundInstance soundInstance = soundInstances[index];
+        if(soundInstance == null) return;
+        soundInstance.commandIndex = -1;
+        if((flags[index] & FLAG_START) != 0) {
+            soundInstance.internalId = results[index];
+            soundInstance.startPending = false;
+        }
+    }
+
+    /**
+     * Drops all pending commands.
+     */
+    void clear() {
+        for(int i = 0; i < size; i++) {
+            SoundInstance soundInstance = soundInstances[i];
+            if(soundInstance != null) {
+                soundInstance.commandIndex = -1;
+                soundInstance.startPending = false;
+            }
+            flags[i] = 0;
+            soundInstances[i] = null;
+            sounds[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the index of the command coalescing all changes to the given instance, adding a new one if necessary.
+     */
+    private int getCommand(SoundInstance soundInstance) {
+        if(soundInstance.commandIndex >= 0) return soundInstance.commandIndex;
+        int index = add(soundInstance);
+        sounds[index] = soundInstance.sound;
+        internalIds[index] = soundInstance.internalId;
+        soundInstance.commandIndex = index;
+        return index;
+    }
+
+    /**
+     * Appends an empty command to the buffer and returns its index.
+     */
+    private int add(SoundInstance soundInstance) {
+        if(size == flags.length) {
+            int newCapacity = size * 2;
+            flags = Arrays.copyOf(flags, newCapacity);
+            soundInstances = Arrays.copyOf(soundInstances, newCapacity);
+            sounds = Arrays.copyOf(sounds, newCapacity);
+            internalIds = Arrays.copyOf(internalIds, newCapacity);
+            boomChannels = Arrays.copyOf(boomChannels, newCapacity);
+            volumes = Arrays.copyOf(volumes, newCapacity);
+            pitches = Arrays.copyOf(pitches, newCapacity);
+            pans = Arrays.copyOf(pans, newCapacity);
+            results = Arrays.copyOf(results, newCapacity);
+        }
+        int index = size++;
+        flags[index] = 0;
+        soundInstances[index] = soundInstance;
+        return index;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.ObjectFloatMap;
+import com.rafaskoberg.gdx.parrot.util.ParrotUtils;
+
+/**
+ * Cache of {@link Sound} durations, so the reflective lookup of {@link ParrotUtils#getSoundDuration(Sound, float)} only happens once per
+ * {@link Sound}. Durations supplied by the user are never overwritten. {@link Sound} implementations don't override {@code equals}, so
+ * the cache is effectively keyed on identity.
+ */
+class SoundDurationCache {
+    private static final float UNKNOWN_DURATION = -1f;
+
+    private final ObjectFloatMap<Sound> durations;
+
+    SoundDurationCache() {
+        this.durations = new ObjectFloatMap<>();
+    }
+
+    /**
+     * Returns the duration of the given {@link Sound}, resolving and caching it on first use. Returns the given default duration in case
+     * the platform doesn't report it and it hasn't been {@link #put(Sound, float) supplied}.
+     */
+    float get(Sound sound, float defaultDuration) {
+        float duration = durations.get(sound, Float.NaN);
+        if(Float.isNaN(duration)) {
+            duration = ParrotUtils.getSoundDuration(sound, UNKNOWN_DURATION);
+            durations.put(sound, duration);
+        }
+        return duration < 0 ? defaultDuration : duration;
+    }
+
+    /**
+     * Supplies the duration of the given {@link Sound}, in seconds.
+     */
+    void put(Sound sound, float duration) {
+        durations.put(sound, duration);
+    }
+
+    /**
+     * Removes the given {@link Sound} from the cache. Should be called once it's disposed.
+     */
+    void remove(Sound sound) {
+        durations.remove(sound, 0);
+    }
+
+    /**
+     * Removes all {@link Sound}s from the cache.
+     */
+    void clear() {
+        durations.clear();
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Table mapping sound IDs to {@link SoundInstance}s. Each ID encodes a slot index in its lower 32 bits and the generation of that slot in
+ * its upper 32 bits, so looking a sound up is a bounds check and an array read. The generation of a slot is bumped whenever it's
+ * released, so stale IDs are rejected once the slot is reused. Slot 0 is never used, so no sound ever gets 0 as its ID.
+ * <p>
+ * All methods must be called from the thread updating the sound player, except for {@link #reserve()}. Other threads reserve IDs from a
+ * lock-free ring of free slots, which is topped up by {@link #refill()}, or from never used slots in case the ring is empty.
+ */
+class SoundHandleTable {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int RESERVE_CAPACITY = 64;
+
+    // Slots
+    private SoundInstance[] instances;
+    private long[] ids;
+    private int[] generations;
+    private int[] nextFree;
+    private int freeHead;
+    private final AtomicInteger nextSlot;
+
+    // Slots reserved for other threads
+    private final long[] reserved;
+    private final AtomicLongArray reservedSequences;
+    private final AtomicLong reservedHead;
+    private long reservedTail;
+
+    SoundHandleTable() {
+        this.instances = new SoundInstance[INITIAL_CAPACITY];
+        this.ids = new long[INITIAL_CAPACITY];
+        this.generations = new int[INITIAL_CAPACITY];
+        this.nextFree = new int[INITIAL_CAPACITY];
+        Arrays.fill(ids, -1);
+        this.freeHead = -1;
+        this.nextSlot = new AtomicInteger(1);
+
+        this.reserved = new long[RESERVE_CAPACITY];
+        this.reservedSequences = new AtomicLongArray(RESERVE_CAPACITY);
+        for(int i = 0; i < RESERVE_CAPACITY; i++) {
+            reservedSequences.set(i, i);
+        }
+        this.reservedHead = new AtomicLong();
+        this.reservedTail = 0;
+    }
+
+    /**
+     * Returns a new ID to be registered, reusing a free slot if possible.
+     */
+    long allocate() {
+        int slot;
+        if(freeHead != -1) {
+            slot = freeHead;
+            freeHead = nextFree[slot];
+        } else {
+            slot = nextSlot.getAndIncrement();
+            ensureCapacity(slot + 1);
+        }
+        return toId(slot, generations[slot]);
+    }
+
+    /**
+     * Returns a new ID to be registered later on by the updating thread. Can be called from any thread.
+     */
+    long reserve() {
+        long position = reservedHead.get();
+        while(true) {
+            int index = (int) position & (RESERVE_CAPACITY - 1);
+            long difference = reservedSequences.get(index) - (position + 1);
+            if(difference == 0) {
+                if(reservedHead.compareAndSet(position, position + 1)) {
+                    long id = reserved[index];
+                    reservedSequences.lazySet(index, position + RESERVE_CAPACITY);
+                    return id;
+                }
+                position = reservedHead.get();
+            } else if(difference < 0) {
+                // Ring is empty, so take a slot that has never been used
+                return toId(nextSlot.getAndIncrement(), 0);
+            } else {
+                position = reservedHead.get();
+            }
+        }
+    }
+
+    /**
+     * Tops up the ring of IDs reserved for other threads with free slots.
+     */
+    void refill() {
+        while(freeHead != -1) {
+            int index = (int) reservedTail & (RESERVE_CAPACITY - 1);
+            if(reservedSequences.get(index) != reservedTail) return;
+            int slot = freeHead;
+            freeHead = nextFree[slot];
+            reserved[index] = toId(slot, generations[slot]);
+            reservedSequences.lazySet(index, reservedTail + 1);
+            reservedTail++;
+        }
+    }
+
+    /**
+     * Associates the given allocated or reserved ID with the given instance.
+     */
+    void register(long id, SoundInstance soundInstance) {
+        int slot = (int) id;
+        ensureCapacity(slot + 1);
+        instances[slot] = soundInstance;
+        ids[slot] = id;
+    }
+
+    /**
+     * Returns the instance registered under the given ID, or {@code null} if the ID is invalid or stale.
+     */
+    SoundInstance get(long id) {
+        int slot = (int) id;
+        if(slot < 0 || slot >= ids.length || ids[slot] != id) return null;
+        return instances[slot];
+    }
+
+    /**
+     * Releases the slot of the given ID, registered or not, making the ID and all copies of it stale. Does nothing if it's stale already.
+     */
+    void release(long id) {
+        int slot = (int) id;
+        if(slot < 0) return;
+        ensureCapacity(slot + 1);
+        if(generations[slot] != (int) (id >>> 32)) return;
+        instances[slot] = null;
+        ids[slot] = -1;
+        generations[slot]++;
+        nextFree[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    /**
+     * Releases all registered IDs.
+     */
+    void clear() {
+        for(int slot = 0; slot < ids.length; slot++) {
+            if(ids[slot] != -1) release(ids[slot]);
+        }
+    }
+
+    /**
+     * Makes sure all arrays can hold the given amount of slots.
+     */
+    private void ensureCapacity(int capacity) {
+        if(capacity <= ids.length) return;
+        int oldCapacity = ids.length;
+        int newCapacity = Math.max(capacity, oldCapacity * 2);
+        instances = Arrays.copyOf(instances, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+        generations = Arrays.copyOf(generations, newCapacity);
+        nextFree = Arrays.copyOf(nextFree, newCapacity);
+        Arrays.fill(ids, oldCapacity, newCapacity, -1);
+    }
+
+    private static long toId(int slot, int generation) {
+        return ((long) generation << 32) | (slot & 0xFFFFFFFFL);
+    }
+
+}
@@ -6,12 +6,16 @@ import com.badlogic.gdx.utils.Pool.Poolable;
 
 /**
  * {@link Sound} wrapper containing a lot of extra information to improve the sound handling.
+ * <p>
+ * Sound players are free to keep the state of their sounds elsewhere, in which case they hand out subclasses reading it through the
+ * getters, and the fields of this class are left unused.
  */
 public class SoundInstance implements Poolable {
     protected Sound sound;
     protected ParrotSoundType type;
     protected long internalId;
     protected long id;
+    protected long sequence;
     protected float positionX;
     protected float positionY;
     protected float volumeFactor;
@@ -19,15 +23,51 @@ public class SoundInstance implements Poolable {
     protected float pitch;
     protected boolean isDying;
     protected boolean playMe;
+    protected boolean isVirtual;
+    protected boolean startPending;
     protected PlaybackMode playbackMode;
     protected long lastTouch;
     protected float duration;
     protected float time;
     protected float currentVolume;
     protected float currentPan;
+    protected float backendVolume;
+    protected float backendPan;
     protected int boomChannel;
     protected boolean persistent;
     protected int priority;
+    protected boolean countedAsVoice;
+    protected float stealScore;
+
+    // Coalesced plays
+    protected int coalescedPlays;
+    protected float coalescedVolumeFactor;
+
+    // Accumulated continuous positions
+    protected int continuousPositions;
+    protected float continuousSumX;
+    protected float continuousSumY;
+    protected float continuousMinDiffX;
+    protected float continuousMinDiffY;
+
+    // Pending backend commands
+    protected SoundCommandBuffer commandBuffer;
+    protected int commandIndex;
+
+    // Slots in collections
+    protected int index;
+    protected int typeGroupIndex;
+    protected int categoryGroupIndex;
+
+    // Spatial hash
+    protected boolean inSpatialHash;
+    protected long cellKey;
+    protected SoundInstance cellPrev;
+    protected SoundInstance cellNext;
+    protected int spatialFrame;
+    protected float distanceFactor;
+    protected float spatialPan;
+    protected int farVersion;
 
     // REMINDER: Reset members
 
@@ -43,7 +83,7 @@ public class SoundInstance implements Poolable {
     }
 
     /**
-     * Returns the public ID of this instance, which is recognized by {@link SoundPlayerImpl}.
+     * Returns the public ID of this instance, which is recognized by its {@link SoundPlayer}.
      */
     public long getId() {
         return id;
@@ -123,7 +163,11 @@ public class SoundInstance implements Poolable {
      * Sets the pitch of this sound. Default is 1.0.
      */
     public void setPitch(float pitch) {
-        if(sound != null) sound.setPitch(internalId, pitch);
+        if(commandBuffer != null) {
+            commandBuffer.setPitch(this, pitch);
+        } else if(sound != null) {
+            sound.setPitch(internalId, pitch);
+        }
     }
 
     /**
@@ -138,6 +182,7 @@ public class SoundInstance implements Poolable {
      */
     public void setVolumeFactor(float volumeFactor) {
         this.volumeFactor = volumeFactor;
+        this.farVersion = -1;
     }
 
     /**
@@ -162,17 +207,25 @@ public class SoundInstance implements Poolable {
     }
 
     /**
-     * Returns whether or not this instance is valid. That is, if it has been played already and the internal Internal ID is valid.
+     * Returns whether or not this sound is virtual, meaning it's inaudible and currently has no voice being played by the backend.
+     */
+    public boolean isVirtual() {
+        return isVirtual;
+    }
+
+    /**
+     * Returns whether or not this instance is valid. That is, if it has been played already and the internal Internal ID is valid, or if
+     * it's virtual or waiting for the backend to start it.
      */
     public boolean isValid() {
-        return !(internalId == -1 && !playMe);
+        return !(internalId == -1 && !playMe && !isVirtual && !startPending);
     }
 
     /**
      * Returns whether or not this sound is valid and active.
      */
     public boolean isActive() {
-        return isValid() && !isDying;
+        return isValid() && !isDying();
     }
 
     /**
@@ -189,6 +242,41 @@ public class SoundInstance implements Poolable {
         this.priority = priority;
     }
 
+    /**
+     * Returns for how long this sound has been playing, in seconds.
+     */
+    public float getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the amount of plays merged into this sound through coalescing, including the one that created it.
+     *
+     * @see ParrotSoundType#getCoalesceTime()
+     */
+    public int getCoalescedPlays() {
+        return coalescedPlays;
+    }
+
+    /**
+     * Merges a new play with the given volume factor into this sound. The loudest volume factor among merged plays is kept, multiplied by
+     * the square root of the amount of plays, up to the given boost.
+     */
+    protected void coalesce(float volumeFactor, float maxVolumeBoost) {
+        if(coalescedPlays == 1) coalescedVolumeFactor = getVolumeFactor();
+        coalescedPlays++;
+        coalescedVolumeFactor = Math.max(coalescedVolumeFactor, volumeFactor);
+        float volumeBoost = Math.min((float) Math.sqrt(coalescedPlays), Math.max(maxVolumeBoost, 1));
+        setVolumeFactor(coalescedVolumeFactor * volumeBoost);
+    }
+
+    /**
+     * Returns whether or not this sound has been stopped and is fading out.
+     */
+    boolean isDying() {
+        return isDying;
+    }
+
     /**
      * Returns whether or not this sound's timer has expired its duration. Only works on the Desktop backend.
      */
@@ -204,6 +292,7 @@ public class SoundInstance implements Poolable {
         this.type = null;
         this.internalId = -1;
         this.id = -1;
+        this.sequence = 0;
         this.positionX = 0.0f;
         this.positionY = 0.0f;
         this.volumeFactor = 1f;
@@ -211,14 +300,40 @@ public class SoundInstance implements Poolable {
         this.pitch = 1.0f;
         this.isDying = false;
         this.playMe = true;
+        this.isVirtual = false;
+        this.startPending = false;
         this.playbackMode = PlaybackMode.NORMAL;
         this.lastTouch = 0;
         this.duration = 0.0f;
         this.time = 0.0f;
         this.currentVolume = 1.0f;
         this.currentPan = 0.0f;
+        this.backendVolume = 0.0f;
+        this.backendPan = 0.0f;
         this.boomChannel = -1;
         this.persistent = false;
         this.priority = 0;
+        this.countedAsVoice = false;
+        this.stealScore = 0.0f;
+        this.coalescedPlays = 1;
+        this.coalescedVolumeFactor = 0.0f;
+        this.continuousPositions = 0;
+        this.continuousSumX = 0.0f;
+        this.continuousSumY = 0.0f;
+        this.continuousMinDiffX = 0.0f;
+        this.continuousMinDiffY = 0.0f;
+        this.commandBuffer = null;
+        this.commandIndex = -1;
+        this.index = -1;
+        this.typeGroupIndex = -1;
+        this.categoryGroupIndex = -1;
+        this.inSpatialHash = false;
+        this.cellKey = 0;
+        this.cellPrev = null;
+        this.cellNext = null;
+        this.spatialFrame = -1;
+        this.distanceFactor = 1.0f;
+        this.spatialPan = 0.0f;
+        this.farVersion = -1;
     }
 }
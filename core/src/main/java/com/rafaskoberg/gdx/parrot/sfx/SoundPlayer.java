@@ -1,9 +1,12 @@
 package com.rafaskoberg.gdx.parrot.sfx;
 
+import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.rafaskoberg.boom.Boom;
+import com.rafaskoberg.gdx.parrot.ParrotSettings;
+import com.rafaskoberg.gdx.parrot.ParrotStats;
 
 /**
  * Spatial sound player that handles all sounds being played in the game.
@@ -36,10 +39,25 @@ public interface SoundPlayer extends Disposable {
     void setSpatialListenerCoordinates(float x, float y);
 
     /**
-     * Updates all the sounds. Must be called constantly.
+     * Updates all the sounds. Must be called constantly. Players buffering their audio commands, such as {@link SoundPlayerImpl}, only
+     * send them to the backend once {@link #flushSounds()} is called.
      */
     void updateSounds(float delta);
 
+    /**
+     * Sends all the audio commands buffered since the last flush to the {@link com.rafaskoberg.gdx.parrot.backend.AudioBackend backend}.
+     * Must be called after {@link #updateSounds(float)}, and never at the same time as it. Does nothing by default, in case the player
+     * talks to the backend directly.
+     */
+    default void flushSounds() {
+    }
+
+    /**
+     * Writes the voice counters of the last update and flush to the given {@link ParrotStats}. Does nothing by default.
+     */
+    default void collectStats(ParrotStats stats) {
+    }
+
     /**
      * Register a {@link ParrotSoundType} to be played the next time this instance is updated.
      *
@@ -139,6 +157,57 @@ public interface SoundPlayer extends Disposable {
      */
     long playSound(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel);
 
+    /**
+     * Calls {@link #playSoundImmediately(ParrotSoundType, int, float, float, float, float, PlaybackMode, int)} with the default attributes.
+     */
+    default long playSoundImmediately(ParrotSoundType type, float x, float y) {
+        return playSoundImmediately(type, -1, x, y, 1f, 1f, null, -1);
+    }
+
+    /**
+     * Version of {@link #playSound(ParrotSoundType, int, float, float, float, float, PlaybackMode, int)} that starts the sound on the backend
+     * right away, instead of the next time this instance is updated. Its volume and pan are calculated at call time, the same way they
+     * would be on update. Sound types can opt into this for every play through {@link ParrotSoundType#isImmediate()}.
+     *
+     * @param soundIndex The specific index of the soundType to be played. If negative, a random index will be chosen.
+     * @return the ID associated with the created {@link SoundInstance}, which can be used for most operations in this class.
+     */
+    long playSoundImmediately(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel);
+
+    /**
+     * Calls {@link #queuePlaySound(ParrotSoundType, int, float, float, float, float, PlaybackMode, int)} with the default attributes.
+     */
+    default long queuePlaySound(ParrotSoundType type, float x, float y) {
+        return queuePlaySound(type, -1, x, y, 1f, 1f, null, -1);
+    }
+
+    /**
+     * Thread-safe version of {@link #playSound(ParrotSoundType, int, float, float, float, float, PlaybackMode, int)}, which can be called
+     * from any thread. The request is queued without locking and only processed at the start of the next {@link #updateSounds(float)}.
+     * <p>
+     * Note that {@link PlaybackMode#CONTINUOUS continuous} requests merged into an already active sound won't be associated with the
+     * returned ID.
+     *
+     * @return the ID the created {@link SoundInstance} will be associated with, or -1 if the queue is full.
+     */
+    long queuePlaySound(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel);
+
+    /**
+     * Thread-safe version of {@link #stopSound(long)}, which can be called from any thread. The request is queued without locking and only
+     * processed at the start of the next {@link #updateSounds(float)}.
+     *
+     * @return Whether or not the request was queued. Returns {@code false} in case the queue is full.
+     */
+    boolean queueStopSound(long id);
+
+    /**
+     * Thread-safe version of {@link #setSoundCoordinates(long, float, float)}, which can be called from any thread. The request is queued
+     * without locking and only processed at the start of the next {@link #updateSounds(float)}.
+     *
+     * @return Whether or not the request was queued. Returns {@code false} in case the queue is full.
+     */
+    boolean queueSoundCoordinates(long id, float x, float y);
+
     /**
      * Returns the {@link SoundInstance} associated with the given ID, if any. Might return {@code null}.
      */
@@ -298,6 +367,53 @@ public interface SoundPlayer extends Disposable {
         soundInstance.playMe = false;
     }
 
+    /**
+     * Returns the duration of the given {@link Sound} in seconds, which is cached after the first lookup. In case the platform doesn't
+     * report durations and none has been {@link #setSoundDuration(Sound, float) supplied},
+     * {@link ParrotSettings#soundDurationOnUnsupportedPlatforms} is returned.
+     */
+    float getSoundDuration(Sound sound);
+
+    /**
+     * Supplies the duration of the given {@link Sound} in seconds, so sounds expire accurately on platforms that don't report durations.
+     */
+    void setSoundDuration(Sound sound, float duration);
+
+    /**
+     * Caches the durations of all {@link Sound}s of the given {@link ParrotSoundType} ahead of time, so they don't have to be looked up
+     * once they're first played.
+     */
+    default void prepareSoundType(ParrotSoundType type) {
+        Array<Sound> sounds = type.getSounds();
+        if(sounds == null) return;
+        for(int i = 0; i < sounds.size; i++) {
+            Sound sound = sounds.get(i);
+            if(sound != null) getSoundDuration(sound);
+        }
+    }
+
+    /**
+     * Removes the given {@link Sound} from the duration cache. Should be called once the {@link Sound} is disposed.
+     */
+    void forgetSound(Sound sound);
+
+    /**
+     * Seeds the random number generator used for sound selection and volume and pitch variations, so they can be reproduced. Sound types
+     * with a {@link com.rafaskoberg.gdx.parrot.util.NonRandomShuffle} are seeded through the shuffle instead.
+     */
+    void setRandomSeed(long seed);
+
+    /**
+     * Returns the {@link VoiceStealPolicy} deciding which voices are stopped first when voice limits are exceeded.
+     */
+    VoiceStealPolicy getVoiceStealPolicy();
+
+    /**
+     * Sets the {@link VoiceStealPolicy} deciding which voices are stopped first when voice limits are exceeded. Defaults to
+     * {@link VoiceStealPolicy#PRIORITY}, which is also used in case {@code null} is given.
+     */
+    void setVoiceStealPolicy(VoiceStealPolicy stealPolicy);
+
     /**
      * Sets the {@link Boom} instance responsible for playing sound effects.
      */
@@ -3,85 +3,65 @@ package com.rafaskoberg.gdx.parrot.sfx;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.LongMap;
-import com.badlogic.gdx.utils.LongMap.Entry;
-import com.badlogic.gdx.utils.ObjectFloatMap;
-import com.badlogic.gdx.utils.Pools;
 import com.rafaskoberg.boom.Boom;
 import com.rafaskoberg.gdx.parrot.Parrot;
 import com.rafaskoberg.gdx.parrot.ParrotSettings;
-import com.rafaskoberg.gdx.parrot.util.ParrotUtils;
+import com.rafaskoberg.gdx.parrot.ParrotStats;
 
-import java.util.Comparator;
 
 /**
  * Advanced spatial sound player that handles all sounds being played in the game.
  */
-public class SoundPlayerImpl implements SoundPlayer {
+public class SoundPlayerImpl extends AbstractSoundPlayer {
     // Collections
-    private final Array<SoundInstance> soundInstances;
-    private final LongMap<SoundInstance> soundsById;
-    private final LongMap<Array<Vector2>> continuousPositionsById;
-    private final ObjectFloatMap<ParrotSoundCategory> pitchFactorsByCategory;
+    private final Array<SoundInstance> nearbySounds;
 
     // Members
-    private final Parrot parrot;
-    private final ParrotSettings settings;
-    private final Vector2 listenerPosition;
-    private final Vector2 tmpVec;
+    private final SoundSpatialHash spatialHash;
+    private final SoundCommandBuffer commandBuffer;
     protected Boom boom;
-    private long nextId;
-    private float rawVolume;
-    private float masterVolume;
-    private Comparator<SoundInstance> priorityComparator;
+    private int frame;
+    private float farDistanceFactor;
+    private float farMasterVolume;
+    private int farVersion;
+
+    // Stats
+    private int dyingVoices;
+    private int virtualVoices;
 
     public SoundPlayerImpl(Parrot parrot) {
+        super(parrot);
+
         // Collections
-        this.soundInstances = new Array<>();
-        this.soundsById = new LongMap<>();
-        this.continuousPositionsById = new LongMap<>();
-        this.pitchFactorsByCategory = new ObjectFloatMap<>();
+        this.nearbySounds = new Array<>();
 
         // Members
-        this.parrot = parrot;
-        this.settings = parrot.getSettings();
-        this.listenerPosition = new Vector2();
-        this.tmpVec = new Vector2();
-        this.nextId = 1;
-        this.rawVolume = 1.0f;
-        this.masterVolume = 1.0f;
-        this.priorityComparator = Comparator.comparingInt(SoundInstance::getPriority).thenComparingLong(SoundInstance::getId);
-    }
-
-    @Override
-    public float getSoundPlayerVolume() {
-        return rawVolume;
-    }
-
-    @Override
-    public void setSoundPlayerVolume(float volume) {
-        this.rawVolume = MathUtils.clamp(volume, 0, 1);
-        this.masterVolume = ParrotUtils.getPerceivedVolume(rawVolume, settings.loudnessExponentialCurve);
-    }
-
-    @Override
-    public Vector2 getSpatialListenerCoordinates() {
-        return listenerPosition;
+        this.spatialHash = new SoundSpatialHash(getSpatialHashCellSize());
+        this.commandBuffer = new SoundCommandBuffer();
     }
 
     @Override
-    public void setSpatialListenerCoordinates(float x, float y) {
-        listenerPosition.set(x, y);
+    protected SoundInstance newSoundInstance() {
+        return new SoundInstance();
     }
 
     @Override
     public void updateSounds(float delta) {
+        // Process requests queued from other threads
+        drainRequests();
+        handles.refill();
+
         // Manually solidify continuous sounds positions
         solidifyContinuousPositions(listenerPosition.x, listenerPosition.y, delta);
 
+        // Calculate spatial attributes of sounds around the listener
+        updateNearbySpatialAttributes();
+
         // Iterate through sounds
+        long now = settings.clock.millis();
+        int dyingVoices = 0;
+        int virtualVoices = 0;
         for(int i = 0; i < soundInstances.size; i++) {
             SoundInstance soundInstance = soundInstances.get(i);
             ParrotSoundType soundType = soundInstance.getType();
@@ -89,36 +69,34 @@ public class SoundPlayerImpl implements SoundPlayer {
 
             // Variables
             float continuityFactor = soundType.getContinuityFactor();
-            float fadeInFactor = 1.0f;
             float distanceFactor = 1.0f;
             float lifeFactor = 1.0f;
             float pan = 0.0f;
 
             // Check if continuous sound should end
             if(soundInstance.isActive() && soundInstance.getPlaybackMode() == PlaybackMode.CONTINUOUS) {
-                float inactivityTime = (System.currentTimeMillis() - soundInstance.lastTouch) / 1000f;
+                float inactivityTime = (now - soundInstance.lastTouch) / 1000f;
                 float continuousTimeout = settings.soundContinuousTimeout * continuityFactor;
                 if(inactivityTime > continuousTimeout) {
-                    stopSound(soundInstance);
+                    traceExpired(soundInstance);
+                    fadeOutSound(soundInstance);
                 }
             }
 
             // If sound has been played but has no internal ID, something terribly wrong happened to it. Kill sound!
-            if(!soundInstance.playMe && soundInstance.internalId == (long) -1) {
+            if(!soundInstance.playMe && !soundInstance.isVirtual && !soundInstance.startPending && soundInstance.internalId == (long) -1) {
                 killSound(soundInstance);
                 i--;
                 continue;
             }
 
             // Calculate fade in factor
-            if(soundInstance.getPlaybackMode() == PlaybackMode.CONTINUOUS) {
-                float continuousFadein = settings.soundContinuousFadeIn * continuityFactor;
-                fadeInFactor = MathUtils.clamp(soundInstance.time / continuousFadein, 0.0f, 1.0f);
-            }
+            float fadeInFactor = calculateFadeInFactor(soundInstance, continuityFactor);
 
             // Kill expired sounds
-            if(soundInstance.isExpired()) {
-                stopSound(soundInstance);
+            if(soundInstance.isExpired() && !soundInstance.isDying) {
+                traceExpired(soundInstance);
+                fadeOutSound(soundInstance);
             }
 
             // Update sound's time
@@ -126,7 +104,7 @@ public class SoundPlayerImpl implements SoundPlayer {
 
             // Check if instance should be killed and removed
             if(soundInstance.isDying) {
-                float deadTime = (System.currentTimeMillis() - soundInstance.lastTouch) / 1000f;
+                float deadTime = (now - soundInstance.lastTouch) / 1000f;
 
                 // Check if sound should be killed and removed
                 if(deadTime > settings.soundDeathFadeOut) {
@@ -139,245 +117,274 @@ public class SoundPlayerImpl implements SoundPlayer {
                 lifeFactor = MathUtils.clamp(1.0f - (deadTime / settings.soundDeathFadeOut), 0.0f, 1.0f);
             }
 
+            boolean settled = false;
             if(category != null && category.isSpatial()) {
-                // Calculate distance factor
-                tmpVec.set(soundInstance.positionX, soundInstance.positionY).sub(listenerPosition.x, listenerPosition.y);
-                float dst = tmpVec.len();
-                if(dst > settings.distanceRolloffMinDistance) {
-                    float dstFactorRaw = MathUtils.clamp((dst - settings.distanceRolloffMinDistance) / settings.distanceRolloffMaxDistance, 0.0f, 1.0f);
-                    distanceFactor = settings.distanceRolloffCurve.apply(settings.distanceRolloffMinGain, 1, 1 - dstFactorRaw);
+                // Sounds outside the cells around the listener are beyond the rolloff range. Once their far attributes have been applied,
+                // they're left alone until they change cells or the far attributes change.
+                if(soundInstance.spatialFrame != frame) {
+                    settled = soundInstance.farVersion == farVersion && !soundInstance.playMe && !soundInstance.isDying && fadeInFactor == 1.0f;
+                    if(!settled) {
+                        soundInstance.distanceFactor = farDistanceFactor;
+                        soundInstance.spatialPan = calculatePan(soundInstance.positionX - listenerPosition.x);
+                        soundInstance.farVersion = farVersion;
+                    }
                 } else {
-                    distanceFactor = 1;
+                    soundInstance.farVersion = -1;
                 }
-
-                // Calculate pan
-                float dstX = tmpVec.x;
-                boolean panFacingLeft = tmpVec.x < 0.0f;
-                float panFactorRaw = MathUtils.clamp(Math.abs(dstX / settings.soundPanLimit), 0.0f, 1.0f);
-                pan = Interpolation.linear.apply(0.0f, settings.soundPanReduction, panFactorRaw);
-                if(panFacingLeft) pan *= -1.0f;
+                distanceFactor = soundInstance.distanceFactor;
+                pan = soundInstance.spatialPan;
             }
 
             // Apply new attributes
-            if(soundInstance.sound != null) {
+            if(!settled) applyAttributes(soundInstance, fadeInFactor, distanceFactor, lifeFactor, pan);
 
-                // Calculate volume variation
-                if(soundInstance.playMe) {
-                    soundInstance.volumeVariation = soundType.getVolumeVariation() * MathUtils.randomTriangular(-1, 1, 0);
-                }
+            // Count voices
+            if(soundInstance.isDying) dyingVoices++;
+            if(soundInstance.isVirtual) virtualVoices++;
+        }
+        this.dyingVoices = dyingVoices;
+        this.virtualVoices = virtualVoices;
+    }
+
+    /**
+     * Returns the fade in factor of the given sound, which only applies to {@link PlaybackMode#CONTINUOUS continuous} sounds.
+     */
+    private float calculateFadeInFactor(SoundInstance soundInstance, float continuityFactor) {
+        if(soundInstance.getPlaybackMode() != PlaybackMode.CONTINUOUS) return 1.0f;
+        float continuousFadein = settings.soundContinuousFadeIn * continuityFactor;
+        return MathUtils.clamp(soundInstance.time / continuousFadein, 0.0f, 1.0f);
+    }
 
-                // Calculate volume
-                float volumeFactors = fadeInFactor * distanceFactor * lifeFactor * soundInstance.volumeFactor;
-                float relativeVolume = ParrotUtils.getPerceivedVolume(soundType.getVolume() + soundInstance.volumeVariation, settings.loudnessExponentialCurve);
-                float soundVolume = relativeVolume * volumeFactors;
+    /**
+     * Calculates the volume and pan of the given sound from the given factors, and schedules them to be sent to the backend. Sounds waiting
+     * to be played are started, and the others are only updated in case the change is big enough to be noticed.
+     */
+    private void applyAttributes(SoundInstance soundInstance, float fadeInFactor, float distanceFactor, float lifeFactor, float pan) {
+        if(soundInstance.sound == null) return;
+        ParrotSoundType soundType = soundInstance.getType();
+        ParrotSoundCategory category = soundType.getCategory();
+
+        // Calculate volume variation
+        if(soundInstance.playMe) {
+            soundInstance.volumeVariation = soundType.getVolumeVariation() * random.randomTriangular();
+        }
 
-                // If sound is dying, keep the same pan and don't increase the volume
-                if(soundInstance.isDying) {
-                    soundVolume = Math.min(soundVolume, soundInstance.currentVolume);
-                    pan = soundInstance.currentPan;
-                }
+        // Calculate volume
+        float volumeFactors = fadeInFactor * distanceFactor * lifeFactor * soundInstance.volumeFactor;
+        float relativeVolume = settings.getPerceivedVolume(soundType.getVolume() + soundInstance.volumeVariation);
+        float soundVolume = relativeVolume * volumeFactors;
 
-                // Apply master volume
-                float finalVolume = soundVolume * masterVolume;
+        // If sound is dying, keep the same pan and don't increase the volume
+        if(soundInstance.isDying) {
+            soundVolume = Math.min(soundVolume, soundInstance.currentVolume);
+            pan = soundInstance.currentPan;
+        }
 
-                // If sound is waiting to be played, play it
-                if(soundInstance.playMe) {
-                    soundInstance.playMe = false;
-                    boolean normal = soundInstance.playbackMode == PlaybackMode.NORMAL;
-                    long internalId;
-                    float pitch = soundInstance.pitch;
+        // Apply master volume
+        float finalVolume = soundVolume * masterVolume;
 
-                    // Apply random pitch variation to sound effect
-                    float pitchVariation = soundType.getPitchVariation() * MathUtils.randomTriangular(-1, 1, 0);
-                    pitch += pitchVariation;
+        // Release the voice of inaudible sounds, and bring them back once they're audible again
+        if(settings.soundVirtualVoices) {
+            float audibleVolume = relativeVolume * distanceFactor * soundInstance.volumeFactor * masterVolume;
+            updateVirtualVoice(soundInstance, audibleVolume);
+        }
 
-                    // Apply category-based pitch factors
-                    if(category != null) {
-                        float pitchCategoryFactor = pitchFactorsByCategory.get(category, 1);
-                        pitch *= pitchCategoryFactor;
-                    }
+        // Quantize values sent to the backend
+        finalVolume = quantize(finalVolume, settings.soundVolumeQuantization);
+        float finalPan = quantize(pan, settings.soundPanQuantization);
 
-                    if(boom == null) {
-                        // Play sound normally
-                        if(normal) {
-                            internalId = soundInstance.sound.play(finalVolume, pitch, pan);
-                        } else {
-                            internalId = soundInstance.sound.loop(finalVolume, pitch, pan);
-                        }
-                    } else {
-                        // Play sound through boom
-                        int boomChannel = soundInstance.boomChannel;
-                        if(normal) {
-                            internalId = boom.play(soundInstance.sound, boomChannel, finalVolume, pitch, pan);
-                        } else {
-                            internalId = boom.loop(soundInstance.sound, boomChannel, finalVolume, pitch, pan);
-                        }
-                    }
-                    soundInstance.internalId = internalId;
-                }
-                // Otherwise just apply changes
-                else {
-                    soundInstance.sound.setPan(soundInstance.internalId, pan, finalVolume);
-                }
+        // If sound is waiting to be played, play it
+        if(soundInstance.playMe) {
+            soundInstance.playMe = false;
+            boolean normal = soundInstance.playbackMode == PlaybackMode.NORMAL;
+            float pitch = soundInstance.pitch;
+
+            // Apply random pitch variation to sound effect
+            float pitchVariation = soundType.getPitchVariation() * random.randomTriangular();
+            pitch += pitchVariation;
 
-                // Store volume and pan to instance
-                soundInstance.currentVolume = soundVolume;
-                soundInstance.currentPan = pan;
+            // Apply category-based pitch factors
+            if(category != null) {
+                float pitchCategoryFactor = pitchFactorsByCategory.get(category, 1);
+                pitch *= pitchCategoryFactor;
             }
+
+            // Schedule sound to be played once commands are flushed
+            commandBuffer.start(soundInstance, finalVolume, pitch, finalPan, !normal);
+            soundInstance.backendVolume = finalVolume;
+            soundInstance.backendPan = finalPan;
+        }
+        // Otherwise just apply changes, in case they're big enough to be noticed
+        else if(!soundInstance.isVirtual && hasBackendChanged(soundInstance, finalVolume, finalPan)) {
+            commandBuffer.setPan(soundInstance, finalPan, finalVolume);
+            soundInstance.backendVolume = finalVolume;
+            soundInstance.backendPan = finalPan;
+        }
+
+        // Store volume and pan to instance
+        soundInstance.currentVolume = soundVolume;
+        soundInstance.currentPan = pan;
+    }
+
+    @Override
+    protected void startImmediately(SoundInstance soundInstance) {
+        if(!soundInstance.playMe || soundInstance.isDying) return;
+        ParrotSoundType soundType = soundInstance.getType();
+        ParrotSoundCategory category = soundType.getCategory();
+
+        // Calculate spatial attributes at call time
+        float distanceFactor = 1.0f;
+        float pan = 0.0f;
+        if(category != null && category.isSpatial()) {
+            updateSpatialAttributes(soundInstance);
+            distanceFactor = soundInstance.distanceFactor;
+            pan = soundInstance.spatialPan;
         }
+
+        // Start sound and send it to the backend without waiting for the next flush
+        applyAttributes(soundInstance, calculateFadeInFactor(soundInstance, soundType.getContinuityFactor()), distanceFactor, 1.0f, pan);
+        backendCalls += commandBuffer.flush(soundInstance, parrot.getAudioBackend());
     }
 
     /**
-     * Iterates through all positions set to continuous sounds and solidify them to whichever position is closer to the camera center.
+     * Returns whether or not the given volume and pan differ enough from the ones last sent to the backend to be sent again. Silencing a
+     * sound is always sent.
      */
-    private void solidifyContinuousPositions(float centerX, float centerY, float delta) {
-        if(continuousPositionsById.size > 0) {
-            for(Entry<Array<Vector2>> entry : continuousPositionsById) {
-                // Get sound
-                long id = entry.key;
-                SoundInstance soundInstance = soundsById.get(id, null);
-                if(soundInstance != null) {
-
-                    // Get positions
-                    Array<Vector2> positions = entry.value;
-                    int positionAmount = positions.size;
-                    if(positionAmount > 0) {
-                        // Measuring variables
-                        float minDiffX = Float.NaN;
-                        float minDiffY = Float.NaN;
-                        float avgX = 0;
-                        float avgY = 0;
-
-                        // Iterate through registered positions
-                        for(int i = 0; i < positionAmount; i++) {
-                            Vector2 position = positions.get(i);
-
-                            // Add to average count
-                            avgX += position.x;
-                            avgY += position.y;
-
-                            // Calculate difference to camera center
-                            float diffX = position.x - centerX;
-                            float diffY = position.y - centerY;
-                            if(Float.isNaN(minDiffX) || Math.abs(diffX) < Math.abs(minDiffX)) minDiffX = diffX;
-                            if(Float.isNaN(minDiffY) || Math.abs(diffY) < Math.abs(minDiffY)) minDiffY = diffY;
-                        }
-
-                        // Fix average
-                        avgX /= positionAmount;
-                        avgY /= positionAmount;
-
-                        // Check if average is closer to the camera than any other single position
-                        float avgDiffX = avgX - centerX;
-                        float avgDiffY = avgY - centerY;
-                        if(Math.abs(avgDiffX) < Math.abs(minDiffX)) minDiffX = avgDiffX;
-                        if(Math.abs(avgDiffY) < Math.abs(minDiffY)) minDiffY = avgDiffY;
-
-                        // Calculate new position
-                        float oldX = soundInstance.positionX;
-                        float oldY = soundInstance.positionY;
-                        float newX = centerX + minDiffX;
-                        float newY = centerY + minDiffY;
-
-                        // Limit sound speed
-                        tmpVec.set(newX, newY).sub(oldX, oldY).limit(settings.soundContinuousSpeed * delta);
-                        newX = oldX + tmpVec.x;
-                        newY = oldY + tmpVec.y;
-
-                        // Apply final position to sound
-                        float finalX = (oldX + newX) / 2f;
-                        float finalY = (oldY + newY) / 2f;
-                        soundInstance.positionX = finalX;
-                        soundInstance.positionY = finalY;
-                    }
+    private boolean hasBackendChanged(SoundInstance soundInstance, float volume, float pan) {
+        float volumeDifference = Math.abs(volume - soundInstance.backendVolume);
+        float panDifference = Math.abs(pan - soundInstance.backendPan);
+        if(volumeDifference > settings.soundVolumeEpsilon || panDifference > settings.soundPanEpsilon) return true;
+        return volume == 0 && soundInstance.backendVolume != 0;
+    }
 
-                    // Clear positions array
-                    positions.clear();
-                }
-            }
-        }
+    /**
+     * Rounds the given value to the nearest multiple of the given step. Returns the value untouched if the step is not positive.
+     */
+    private static float quantize(float value, float step) {
+        if(step <= 0) return value;
+        return Math.round(value / step) * step;
     }
 
-    @Override
-    public long playSound(ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
-        // Make sure PlaybackMode is valid
-        if(mode == null) mode = type.getPlaybackMode();
-        if(mode == null) mode = PlaybackMode.NORMAL;
-
-        // Sanitize sound index
-        soundIndex = Math.min(soundIndex, type.getSounds().size - 1);
-
-        // If sound is continuous, see if there's an active one
-        if(mode == PlaybackMode.CONTINUOUS) {
-            for(SoundInstance soundInstance : soundInstances) {
-                if(soundInstance.getType() == type) {
-                    if(soundInstance.playbackMode == mode) {
-                        if(soundInstance.isActive()) {
-                            soundInstance.lastTouch = System.currentTimeMillis();
-                            // Sound is active, return shared ID
-                            return soundInstance.id;
-                        }
-                    }
-                }
+    /**
+     * Makes the given sound virtual if it's inaudible, or schedules it to be played again if it's virtual and audible enough. Fade and
+     * death envelopes are not taken into account, only distance and volume.
+     * <p>
+     * Since libGDX can't start a {@link Sound} at a given offset, virtual sounds in {@link PlaybackMode#NORMAL normal mode} keep tracking
+     * their time until they expire, unless {@link ParrotSettings#soundVirtualRestartNormal} is enabled, in which case they start over.
+     */
+    private void updateVirtualVoice(SoundInstance soundInstance, float audibleVolume) {
+        if(soundInstance.isVirtual) {
+            // Play sound again once it's audible enough
+            boolean looping = soundInstance.playbackMode != PlaybackMode.NORMAL;
+            boolean resumable = looping || settings.soundVirtualRestartNormal;
+            if(resumable && !soundInstance.isDying && audibleVolume >= settings.soundVirtualResumeVolume) {
+                soundInstance.isVirtual = false;
+                soundInstance.playMe = true;
+
+                // Sounds in normal mode can't be resumed where they were, so they start over
+                if(!looping) soundInstance.time = 0.0f;
+            }
+        } else if(audibleVolume < settings.soundVirtualVolume) {
+            // Sounds with unknown duration would never expire, so keep them real
+            if(soundInstance.playbackMode == PlaybackMode.NORMAL && MathUtils.isZero(soundInstance.duration)) {
+                return;
             }
+
+            // Release voice
+            commandBuffer.stop(soundInstance);
+            soundInstance.internalId = -1;
+            soundInstance.playMe = false;
+            soundInstance.isVirtual = true;
         }
+    }
 
-        // Ensure we have a sound to play
-        Array<Sound> sounds = type.getSounds();
-        if(sounds == null || sounds.isEmpty()) {
-            return -1;
+    /**
+     * Calculates the distance factor and pan of all spatial sounds living in the cells around the listener. Sounds beyond the rolloff
+     * range all share the same distance factor, which is calculated only once.
+     */
+    private void updateNearbySpatialAttributes() {
+        // Rebuild spatial hash in case the cell size has changed
+        float cellSize = getSpatialHashCellSize();
+        if(spatialHash.getCellSize() != cellSize) {
+            spatialHash.rebuild(cellSize, soundInstances);
+            farVersion++;
         }
 
-        // Get random sound
-        final Sound sound;
-        if(soundIndex > 0) {
-            sound = sounds.get(soundIndex);
-        } else if(type.getNonRandomShuffle() != null) {
-            sound = type.getNonRandomShuffle().get();
-        } else {
-            sound = type.getSounds().random();
+        // Calculate distance factor shared by all sounds beyond the rolloff range
+        frame++;
+        float farDistanceFactor = settings.getDistanceRolloffFactor(Float.POSITIVE_INFINITY);
+        if(farDistanceFactor != this.farDistanceFactor || masterVolume != farMasterVolume) {
+            this.farDistanceFactor = farDistanceFactor;
+            this.farMasterVolume = masterVolume;
+            farVersion++;
         }
 
-        // Ensure sound is valid
-        if(sound == null) {
-            return -1;
+        // Query nearby sounds
+        float radius = settings.distanceRolloffMinDistance + settings.distanceRolloffMaxDistance;
+        spatialHash.query(listenerPosition.x, listenerPosition.y, radius, nearbySounds);
+        for(int i = 0; i < nearbySounds.size; i++) {
+            updateSpatialAttributes(nearbySounds.get(i));
         }
+        nearbySounds.clear();
+    }
 
-        // Calculate pitch
-        pitch = pitch * type.getPitch();
+    /**
+     * Calculates the distance factor and pan of the given spatial sound, marking them as up to date for the current frame.
+     */
+    private void updateSpatialAttributes(SoundInstance soundInstance) {
+        // Calculate distance factor
+        tmpVec.set(soundInstance.positionX, soundInstance.positionY).sub(listenerPosition.x, listenerPosition.y);
+        soundInstance.distanceFactor = settings.getDistanceRolloffFactor(tmpVec.len());
+
+        // Calculate pan
+        soundInstance.spatialPan = calculatePan(tmpVec.x);
+        soundInstance.spatialFrame = frame;
+    }
 
-        // Create SoundInstance
-        long id = getNextId();
-        SoundInstance soundInstance = Pools.obtain(SoundInstance.class);
+    /**
+     * Calculates the pan of a spatial sound based on its horizontal distance to the listener.
+     */
+    private float calculatePan(float dstX) {
+        boolean panFacingLeft = dstX < 0.0f;
+        float panFactorRaw = MathUtils.clamp(Math.abs(dstX / settings.soundPanLimit), 0.0f, 1.0f);
+        float pan = Interpolation.linear.apply(0.0f, settings.soundPanReduction, panFactorRaw);
+        if(panFacingLeft) pan *= -1.0f;
+        return pan;
+    }
+
+    /**
+     * Returns the cell size to be used by the spatial hash, making sure it's valid.
+     */
+    private float getSpatialHashCellSize() {
+        return Math.max(settings.spatialHashCellSize, 0.01f);
+    }
+
+    @Override
+    protected SoundInstance addSound(Sound sound, ParrotSoundType type, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
+        SoundInstance soundInstance = soundInstancePool.obtain();
         soundInstance.sound = sound;
         soundInstance.type = type;
-        soundInstance.id = id;
-        soundInstance.duration = ParrotUtils.getSoundDuration(sound, settings.soundDurationOnUnsupportedPlatforms);
+        soundInstance.duration = getSoundDuration(sound);
         soundInstance.positionX = x;
         soundInstance.positionY = y;
         soundInstance.volumeFactor = volumeFactor;
         soundInstance.pitch = pitch;
         soundInstance.playbackMode = mode;
-        soundInstance.lastTouch = System.currentTimeMillis();
+        soundInstance.lastTouch = settings.clock.millis();
         soundInstance.priority = type.getPriority();
         soundInstance.boomChannel = boomChannel;
 
-        // Register SoundInstance
-        registerSound(soundInstance);
-
-        // Return external ID
-        return id;
-    }
-
-    @Override
-    public SoundInstance getSound(long internalId) {
-        if(internalId == (long) -1) return null;
-        return soundsById.get(internalId, null);
-    }
+        // Add sound to collections
+        soundInstance.index = soundInstances.size;
+        soundInstances.add(soundInstance);
+        soundInstance.commandBuffer = commandBuffer;
 
-    @Override
-    public Array<SoundInstance> getAllSounds() {
-        return soundInstances;
+        // Add spatial sounds to the spatial hash
+        ParrotSoundCategory category = type.getCategory();
+        if(category != null && category.isSpatial()) {
+            spatialHash.add(soundInstance);
+        }
+        return soundInstance;
     }
 
     @Override
@@ -385,146 +392,68 @@ public class SoundPlayerImpl implements SoundPlayer {
         if(soundInstance == null) return false;
 
         // Touch instance
-        if(soundInstance.isActive()) soundInstance.lastTouch = System.currentTimeMillis();
+        if(soundInstance.isActive()) soundInstance.lastTouch = settings.clock.millis();
 
         // Return flag indicating if instance is valid
         return soundInstance.isValid();
     }
 
     @Override
-    public void setSoundCoordinates(SoundInstance soundInstance, float x, float y) {
-        if(soundInstance != null) {
-            // Ignore dying sounds
-            if(soundInstance.isDying) return;
-
-            // Check if sound is continuous, and if so add an accumulated position
-            if(soundInstance.playbackMode == PlaybackMode.CONTINUOUS) {
-                Array<Vector2> coordsArray = continuousPositionsById.get(soundInstance.id, null);
-                if(coordsArray == null) {
-                    coordsArray = new Array<>();
-                    continuousPositionsById.put(soundInstance.id, coordsArray);
-                }
-                Vector2 coords = new Vector2();
-                coords.set(x, y);
-                coordsArray.add(coords);
-            }
-
-            // Otherwise set position directly
-            else {
-                soundInstance.positionX = x;
-                soundInstance.positionY = y;
-            }
-        }
-    }
-
-    @Override
-    public void stopSound(ParrotSoundType type, boolean ignorePersistent) {
-        if(type == null) return;
-        for(int i = 0; i < soundInstances.size; i++) {
-            SoundInstance soundInstance = soundInstances.get(i);
-            if(ignorePersistent && soundInstance.isPersistent()) continue;
-            if(soundInstance.getType() == type) {
-                stopSound(soundInstance);
-            }
-        }
-    }
-
-    @Override
-    public void stopSound(ParrotSoundCategory category, boolean ignorePersistent) {
-        if(category == null) return;
-        for(int i = 0; i < soundInstances.size; i++) {
-            SoundInstance soundInstance = soundInstances.get(i);
-            if(ignorePersistent && soundInstance.isPersistent()) continue;
-            if(soundInstance.getType().getCategory() == category) {
-                stopSound(soundInstance);
-            }
-        }
+    protected void setSoundPosition(SoundInstance soundInstance, float x, float y) {
+        soundInstance.positionX = x;
+        soundInstance.positionY = y;
+        if(spatialHash.move(soundInstance)) soundInstance.farVersion = -1;
     }
 
     @Override
-    public void stopAllSounds(boolean ignorePersistent) {
-        for(int i = 0; i < soundInstances.size; i++) {
-            SoundInstance soundInstance = soundInstances.get(i);
-            if(ignorePersistent && soundInstance.isPersistent()) continue;
-            stopSound(soundInstance);
-        }
+    public void stopSound(SoundInstance soundInstance) {
+        if(soundInstance == null) return;
+        if(soundInstance.isDying) return;
+        traceStopped(soundInstance);
+        fadeOutSound(soundInstance);
     }
 
     @Override
-    public void stopSound(SoundInstance soundInstance) {
-        if(soundInstance == null || soundInstance.isDying) return;
-        soundInstance.lastTouch = System.currentTimeMillis();
+    protected void fadeOutSound(SoundInstance soundInstance) {
+        if(soundInstance.isDying) return;
+        soundInstance.lastTouch = settings.clock.millis();
         soundInstance.isDying = true;
         soundInstance.playMe = false;
+        voiceLimiter.release(soundInstance);
     }
 
     @Override
-    public float getSoundCategoryPitchFactor(ParrotSoundCategory category) {
-        return pitchFactorsByCategory.get(category, 1);
-    }
-
-    @Override
-    public void setSoundCategoryPitchFactor(ParrotSoundCategory category, float pitchFactor) {
-        // Update factor
-        float oldPitchFactor = pitchFactorsByCategory.get(category, 1);
-        pitchFactorsByCategory.put(category, pitchFactor);
-        float pitchDifference = pitchFactor - oldPitchFactor;
-
-        // Apply difference to ongoing sounds
-        if(!MathUtils.isZero(pitchDifference)) {
-            for(int i = 0; i < soundInstances.size; i++) {
-                SoundInstance soundInstance = soundInstances.get(i);
-                if(soundInstance.getType().getCategory() == category) {
-                    soundInstance.pitch += pitchDifference;
-                    Sound sound = soundInstance.sound;
-                    if(sound != null) {
-                        sound.setPitch(soundInstance.internalId, soundInstance.pitch);
-                    }
-                }
-            }
-        }
-    }
-
-    @Override
-
-    public void killSound(ParrotSoundType type) {
-        if(type == null) return;
-        for(int i = 0; i < soundInstances.size; i++) {
-            SoundInstance soundInstance = soundInstances.get(i);
-            if(soundInstance.getType() == type) {
-                killSound(soundInstance);
-                i--;
-            }
-        }
-    }
-
-    @Override
-    public void killSound(ParrotSoundCategory category) {
-        if(category == null) return;
-        for(int i = 0; i < soundInstances.size; i++) {
-            SoundInstance soundInstance = soundInstances.get(i);
-            if(soundInstance.getType().getCategory() == category) {
-                killSound(soundInstance);
-                i--;
-            }
+    protected void addSoundPitch(SoundInstance soundInstance, float pitchDifference) {
+        soundInstance.pitch += pitchDifference;
+        if(soundInstance.sound != null) {
+            commandBuffer.setPitch(soundInstance, soundInstance.pitch);
         }
     }
 
     @Override
     public void killAllSounds() {
+        // Kill sounds in a single pass through the sound array
         for(int i = 0; i < soundInstances.size; i++) {
             SoundInstance soundInstance = soundInstances.get(i);
-            killSound(soundInstance);
+            traceKilled(soundInstance);
+            commandBuffer.stop(soundInstance);
+            detachSound(soundInstance);
+            soundInstance.index = -1;
+            removedVoices++;
         }
+
+        // Free instances
+        soundInstancePool.freeAll(soundInstances);
         soundInstances.clear();
     }
 
     @Override
     public void killSound(SoundInstance soundInstance) {
         if(soundInstance == null) return;
+        traceKilled(soundInstance);
 
         // Stop sound
-        if(soundInstance.sound != null) soundInstance.sound.stop(soundInstance.internalId);
+        commandBuffer.stop(soundInstance);
 
         // Unregister sound
         unregisterSound(soundInstance);
@@ -533,96 +462,60 @@ public class SoundPlayerImpl implements SoundPlayer {
     @Override
     public void setBoom(Boom boom) {
         this.boom = boom;
+        super.setBoom(boom);
     }
 
-    /**
-     * Registers the given sound to all collections of this instance.
-     */
-    private void registerSound(SoundInstance soundInstance) {
-        // Add sound to collections
-        soundInstances.add(soundInstance);
-        soundsById.put(soundInstance.id, soundInstance);
+    @Override
+    public void flushSounds() {
+        backendCalls += commandBuffer.flush(parrot.getAudioBackend());
+    }
 
-        // Limit voices
-        limitVoices(soundInstance.getType());
+    @Override
+    public void collectStats(ParrotStats stats) {
+        stats.setVoices(soundInstances.size, dyingVoices, virtualVoices);
+        super.collectStats(stats);
     }
 
     /**
      * Unregisters the given sound from all collections of this instance.
      */
     private void unregisterSound(SoundInstance soundInstance) {
-        // Remove from collections
-        soundInstances.removeValue(soundInstance, true);
-        soundsById.remove(soundInstance.id);
-
-        // Remove continuous positions
-        if(soundInstance.playbackMode == PlaybackMode.CONTINUOUS) {
-            continuousPositionsById.remove(soundInstance.id);
+        // Make sure sound is registered, as it might have been killed already
+        int index = soundInstance.index;
+        if(index < 0 || index >= soundInstances.size || soundInstances.get(index) != soundInstance) return;
+
+        // Remove from sound array by swapping the last sound into its slot
+        SoundInstance last = soundInstances.pop();
+        if(last != soundInstance) {
+            soundInstances.set(index, last);
+            last.index = index;
         }
+        soundInstance.index = -1;
+        removedVoices++;
+
+        // Remove from remaining collections
+        detachSound(soundInstance);
 
         // Free instances
-        Pools.free(soundInstance);
+        soundInstancePool.free(soundInstance);
     }
 
-    /**
-     * Limits the amount of voices of the given {@link ParrotSoundType} playing at once. If there are more voices than the allowed amount,
-     * the oldest ones are killed.
-     */
-    private void limitVoices(ParrotSoundType type) {
-        ParrotSoundCategory category = type.getCategory();
-
-        // Get voice limits
-        int availableVoicesForType = type.getVoices();
-        int availableVoicesForCategory = category == null ? Integer.MAX_VALUE : category.getVoices();
-
-        // Make sure we really have to limit voices at all
-        int totalSoundsPlaying = soundInstances.size;
-        if(totalSoundsPlaying <= availableVoicesForType && totalSoundsPlaying <= availableVoicesForCategory) {
-            return;
-        }
-
-        // Sort sounds before limitting
-        soundInstances.sort(priorityComparator);
-
-        // Iterate through valid sound instances
-        for(int i = soundInstances.size - 1; i >= 0; i--) {
-            SoundInstance soundInstance = soundInstances.get(i);
-            if(soundInstance.isActive() && !soundInstance.isExpired()) {
-
-                // Stop sounds based on category
-                if(soundInstance.getType().getCategory() == category) {
-                    if(availableVoicesForCategory-- <= 0) {
-                        stopSound(soundInstance);
-                    }
+    @Override
+    protected void detachSound(SoundInstance soundInstance) {
+        super.detachSound(soundInstance);
 
-                    // Stop sounds based on type
-                    else if(soundInstance.getType() == type) {
-                        if(availableVoicesForType-- <= 0) {
-                            stopSound(soundInstance);
-                        }
-                    }
-                }
-            }
-        }
-    }
+        // Remove from spatial hash
+        spatialHash.remove(soundInstance);
 
-    /** Returns the next available sound ID to be used. */
-    private long getNextId() {
-        while(true) {
-            nextId++;
-            if(nextId == (long) -1)
-                continue;
-            if(!soundsById.containsKey(nextId))
-                break;
-        }
-        return nextId;
+        // Drop pending backend commands
+        commandBuffer.cancel(soundInstance);
     }
 
     @Override
     public void dispose() {
-        Pools.freeAll(soundInstances);
-        soundInstances.clear();
-        soundsById.clear();
+        flushSounds();
+        spatialHash.clear();
+        super.dispose();
     }
 
 }
@@ -0,0 +1,178 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of sound requests, which can be offered from any amount of threads and polled from the single thread updating
+ * the sound player. Records are preallocated, so offering and polling requests never allocates.
+ * <p>
+ * Each record has a sequence number telling whether it's free for the producer of a given position, or ready for the consumer. Producers
+ * claim a position by advancing the tail with a CAS, write the record and then publish it by updating its sequence.
+ */
+class SoundRequestQueue {
+    static final int DEFAULT_CAPACITY = 1024;
+
+    // Request kinds
+    static final int PLAY = 0;
+    static final int STOP = 1;
+    static final int COORDINATES = 2;
+
+    // Records
+    private final SoundRequest[] requests;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    // Positions
+    private final AtomicLong tail;
+    private long head;
+
+    /**
+     * @param capacity Maximum amount of pending requests. Rounded up to the next power of two.
+     */
+    SoundRequestQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.requests = new SoundRequest[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for(int i = 0; i < size; i++) {
+            requests[i] = new SoundRequest();
+            sequences.set(i, i);
+        }
+        this.tail = new AtomicLong();
+        this.head = 0;
+    }
+
+    /**
+     * Offers a request to play a sound, reserving its ID from the given {@link SoundHandleTable} once there's room for the request. Can be
+     * called from any thread.
+     *
+     * @return The reserved ID, or -1 in case the queue is full.
+     */
+    long offerPlay(SoundHandleTable handles, ParrotSoundType type, int soundIndex, float x, float y, float volumeFactor, float pitch, PlaybackMode mode, int boomChannel) {
+        long position = claim();
+        if(position < 0) return -1;
+        long id = handles.reserve();
+        SoundRequest request = requests[(int) position & mask];
+        request.kind = PLAY;
+        request.id = id;
+        request.type = type;
+        request.soundIndex = soundIndex;
+        request.x = x;
+        request.y = y;
+        request.volumeFactor = volumeFactor;
+        request.pitch = pitch;
+        request.mode = mode;
+        request.boomChannel = boomChannel;
+        publish(position);
+        return id;
+    }
+
+    /**
+     * Offers a request to stop the sound associated with the given ID. Can be called from any thread.
+     *
+     * @return Whether or not the request was queued. Returns {@code false} in case the queue is full.
+     */
+    boolean offerStop(long id) {
+        long position = claim();
+        if(position < 0) return false;
+        SoundRequest request = requests[(int) position & mask];
+        request.kind = STOP;
+        request.id = id;
+        publish(position);
+        return true;
+    }
+
+    /**
+     * Offers a request to move the sound associated with the given ID. Can be called from any thread.
+     *
+     * @return Whether or not the request was queued. Returns {@code false} in case the queue is full.
+     */
+    boolean offerCoordinates(long id, float x, float y) {
+        long position = claim();
+        if(position < 0) return false;
+        SoundRequest request = requests[(int) position & mask];
+        request.kind = COORDINATES;
+        request.id = id;
+        request.x = x;
+        request.y = y;
+        publish(position);
+        return true;
+    }
+
+    /**
+     * Copies the oldest published request into the given record and frees its slot. Must only be called from the updating thread.
+     *
+     * @return Whether or not a request was available.
+     */
+    boolean poll(SoundRequest out) {
+        int index = (int) head & mask;
+        if(sequences.get(index) != head + 1) return false;
+
+        // Copy request
+        SoundRequest request = requests[index];
+        out.set(request);
+        request.type = null;
+        request.mode = null;
+
+        // Free slot for the producer one lap ahead
+        sequences.lazySet(index, head + requests.length);
+        head++;
+        return true;
+    }
+
+    /**
+     * Claims the next free position for writing, or returns -1 in case the queue is full.
+     */
+    private long claim() {
+        long position = tail.get();
+        while(true) {
+            long difference = sequences.get((int) position & mask) - position;
+            if(difference == 0) {
+                if(tail.compareAndSet(position, position + 1)) return position;
+                position = tail.get();
+            } else if(difference < 0) {
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Makes the record written at the given position visible to the consumer.
+     */
+    private void publish(long position) {
+        sequences.lazySet((int) position & mask, position + 1);
+    }
+
+    /**
+     * Preallocated record holding the attributes of a queued request.
+     */
+    static class SoundRequest {
+        int kind;
+        long id;
+        ParrotSoundType type;
+        int soundIndex;
+        float x;
+        float y;
+        float volumeFactor;
+        float pitch;
+        PlaybackMode mode;
+        int boomChannel;
+
+        void set(SoundRequest other) {
+            this.kind = other.kind;
+            this.id = other.id;
+            this.type = other.type;
+            this.soundIndex = other.soundIndex;
+            this.x = other.x;
+            this.y = other.y;
+            this.volumeFactor = other.volumeFactor;
+            this.pitch = other.pitch;
+            this.mode = other.mode;
+            this.boomChannel = other.boomChannel;
+        }
+    }
+
+}
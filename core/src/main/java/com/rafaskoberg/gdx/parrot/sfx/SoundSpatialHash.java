@@ -0,0 +1,162 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Uniform grid that buckets spatial {@link SoundInstance}s by their coordinates. Each cell holds an intrusive linked list of instances, so
+ * adding, removing and moving a sound between cells are all constant time operations.
+ */
+class SoundSpatialHash {
+    private final LongMap<SoundInstance> cells;
+    private float cellSize;
+
+    SoundSpatialHash(float cellSize) {
+        this.cells = new LongMap<>();
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Returns the size of each cell in world units.
+     */
+    float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Changes the size of each cell and rehashes all the given instances into the new grid.
+     */
+    void rebuild(float cellSize, Array<SoundInstance> soundInstances) {
+        this.cellSize = cellSize;
+        cells.clear();
+        for(int i = 0; i < soundInstances.size; i++) {
+            SoundInstance soundInstance = soundInstances.get(i);
+            if(soundInstance.inSpatialHash) {
+                soundInstance.inSpatialHash = false;
+                add(soundInstance);
+            }
+        }
+    }
+
+    /**
+     * Adds the given instance to the cell containing its current coordinates.
+     */
+    void add(SoundInstance soundInstance) {
+        if(soundInstance.inSpatialHash) return;
+        link(soundInstance, getKey(soundInstance.positionX, soundInstance.positionY));
+    }
+
+    /**
+     * Removes the given instance from its cell, if present.
+     */
+    void remove(SoundInstance soundInstance) {
+        if(!soundInstance.inSpatialHash) return;
+        unlink(soundInstance);
+    }
+
+    /**
+     * Moves the given instance to the cell containing its current coordinates. Does nothing if the cell didn't change.
+     *
+     * @return whether or not the instance changed cells
+     */
+    boolean move(SoundInstance soundInstance) {
+        if(!soundInstance.inSpatialHash) return false;
+        long key = getKey(soundInstance.positionX, soundInstance.positionY);
+        if(key == soundInstance.cellKey) return false;
+        unlink(soundInstance);
+        link(soundInstance, key);
+        return true;
+    }
+
+    /**
+     * Adds all instances living in cells that intersect the given circle to the output {@link Array}. Instances slightly outside the
+     * radius may also be returned.
+     */
+    void query(float x, float y, float radius, Array<SoundInstance> out) {
+        if(cells.size == 0) return;
+
+        int minCellX = getCell(x - radius);
+        int maxCellX = getCell(x + radius);
+        int minCellY = getCell(y - radius);
+        int maxCellY = getCell(y + radius);
+        long cellsInRange = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+
+        // If there are fewer populated cells than cells in range, walk the populated ones instead
+        if(cellsInRange > cells.size) {
+            for(SoundInstance head : cells.values()) {
+                int cellX = (int) (head.cellKey >> 32);
+                int cellY = (int) head.cellKey;
+                if(cellX < minCellX || cellX > maxCellX || cellY < minCellY || cellY > maxCellY) continue;
+                for(SoundInstance soundInstance = head; soundInstance != null; soundInstance = soundInstance.cellNext) {
+                    out.add(soundInstance);
+                }
+            }
+            return;
+        }
+
+        for(int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for(int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                SoundInstance soundInstance = cells.get(pack(cellX, cellY), null);
+                for(; soundInstance != null; soundInstance = soundInstance.cellNext) {
+                    out.add(soundInstance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all instances from the grid.
+     */
+    void clear() {
+        for(SoundInstance head : cells.values()) {
+            SoundInstance soundInstance = head;
+            while(soundInstance != null) {
+                SoundInstance next = soundInstance.cellNext;
+                soundInstance.inSpatialHash = false;
+                soundInstance.cellPrev = null;
+                soundInstance.cellNext = null;
+                soundInstance = next;
+            }
+        }
+        cells.clear();
+    }
+
+    private void link(SoundInstance soundInstance, long key) {
+        SoundInstance head = cells.get(key, null);
+        soundInstance.cellKey = key;
+        soundInstance.cellPrev = null;
+        soundInstance.cellNext = head;
+        soundInstance.inSpatialHash = true;
+        if(head != null) head.cellPrev = soundInstance;
+        cells.put(key, soundInstance);
+    }
+
+    private void unlink(SoundInstance soundInstance) {
+        SoundInstance prev = soundInstance.cellPrev;
+        SoundInstance next = soundInstance.cellNext;
+        if(next != null) next.cellPrev = prev;
+        if(prev != null) {
+            prev.cellNext = next;
+        } else if(next != null) {
+            cells.put(soundInstance.cellKey, next);
+        } else {
+            cells.remove(soundInstance.cellKey);
+        }
+        soundInstance.cellPrev = null;
+        soundInstance.cellNext = null;
+        soundInstance.inSpatialHash = false;
+    }
+
+    private int getCell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private long getKey(float x, float y) {
+        return pack(getCell(x), getCell(y));
+    }
+
+    private static long pack(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Group of {@link SoundInstance}s sharing the same {@link ParrotSoundType} or {@link ParrotSoundCategory}, along with a counter of how many
+ * of them are still active voices. Used to limit voices without going through every sound being played.
+ * <p>
+ * Type groups also keep track of their active {@link PlaybackMode#CONTINUOUS continuous} instance, which is shared by everyone playing it.
+ * <p>
+ * Instances store their slot in the group, so they can be added and removed in constant time. The order of instances is not preserved.
+ */
+class SoundVoiceGroup {
+    final Array<SoundInstance> soundInstances;
+    final boolean byCategory;
+    int activeVoices;
+    SoundInstance continuousSound;
+
+    SoundVoiceGroup(boolean byCategory) {
+        this.soundInstances = new Array<>(false, 16);
+        this.byCategory = byCategory;
+        this.activeVoices = 0;
+        this.continuousSound = null;
+    }
+
+    /**
+     * Adds the given instance to this group.
+     */
+    void add(SoundInstance soundInstance) {
+        setIndex(soundInstance, soundInstances.size);
+        soundInstances.add(soundInstance);
+    }
+
+    /**
+     * Removes the given instance from this group by swapping the last instance into its slot.
+     */
+    void remove(SoundInstance soundInstance) {
+        int index = getIndex(soundInstance);
+        if(index < 0 || index >= soundInstances.size || soundInstances.get(index) != soundInstance) return;
+        SoundInstance last = soundInstances.pop();
+        if(last != soundInstance) {
+            soundInstances.set(index, last);
+            setIndex(last, index);
+        }
+        setIndex(soundInstance, -1);
+    }
+
+    private int getIndex(SoundInstance soundInstance) {
+        return byCategory ? soundInstance.categoryGroupIndex : soundInstance.typeGroupIndex;
+    }
+
+    private void setIndex(SoundInstance soundInstance, int index) {
+        if(byCategory) {
+            soundInstance.categoryGroupIndex = index;
+        } else {
+            soundInstance.typeGroupIndex = index;
+        }
+    }
+
+}
@@ -0,0 +1,371 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.QuickSelect;
+import com.rafaskoberg.gdx.parrot.ParrotSettings;
+import com.rafaskoberg.gdx.parrot.ParrotStats;
+import com.rafaskoberg.gdx.parrot.ParrotTracer;
+
+import java.util.Comparator;
+
+/**
+ * Keeps track of the voices of each {@link ParrotSoundType} and {@link ParrotSoundCategory} through {@link SoundVoiceGroup}s, and stops the
+ * lowest scoring voices according to its {@link VoiceStealPolicy} whenever a group goes over its limit.
+ */
+class SoundVoiceLimiter {
+    private final ParrotSettings settings;
+    private final Vector2 listenerPosition;
+    private final IdentityMap<ParrotSoundType, SoundVoiceGroup> groupsByType;
+    private final IdentityMap<ParrotSoundCategory, SoundVoiceGroup> groupsByCategory;
+    private final Array<ParrotSoundCategory> categories;
+    private final Array<SoundVoiceGroup> categoryGroups;
+    private final Array<SoundInstance> voiceCandidates;
+    private final Comparator<SoundInstance> stealComparator;
+    private final QuickSelect<SoundInstance> stealSelect;
+    private final SoundInstance admissionProbe;
+    private VoiceStealPolicy stealPolicy;
+    private int stolenVoices;
+    private int rejectedPlays;
+
+    /**
+     * @param settings         {@link ParrotSettings} used to calculate the volume of new plays being admitted.
+     * @param listenerPosition Position of the listener of the sound player, read whenever a new play is admitted.
+     */
+    SoundVoiceLimiter(ParrotSettings settings, Vector2 listenerPosition) {
+        this.settings = settings;
+        this.listenerPosition = listenerPosition;
+        this.groupsByType = new IdentityMap<>();
+        this.groupsByCategory = new IdentityMap<>();
+        this.categories = new Array<>();
+        this.categoryGroups = new Array<>();
+        this.voiceCandidates = new Array<>(true, 16, SoundInstance.class);
+        this.stealComparator = Comparator.<SoundInstance>comparingDouble(soundInstance -> soundInstance.stealScore).thenComparingLong(soundInstance -> soundInstance.sequence);
+        this.stealSelect = new QuickSelect<>();
+        this.admissionProbe = new SoundInstance();
+        this.stealPolicy = VoiceStealPolicy.PRIORITY;
+    }
+
+    /**
+     * Returns the {@link VoiceStealPolicy} deciding which voices are stopped first.
+     */
+    VoiceStealPolicy getStealPolicy() {
+        return stealPolicy;
+    }
+
+    /**
+     * Sets the {@link VoiceStealPolicy} deciding which voices are stopped first. Falls back to {@link VoiceStealPolicy#PRIORITY} in case
+     * it's {@code null}.
+     */
+    void setStealPolicy(VoiceStealPolicy stealPolicy) {
+        this.stealPolicy = stealPolicy == null ? VoiceStealPolicy.PRIORITY : stealPolicy;
+    }
+
+    /**
+     * Adds the given sound to the groups of its type and category, counting it as an active voice.
+     */
+    void register(SoundInstance soundInstance) {
+        ParrotSoundType type = soundInstance.getType();
+        ParrotSoundCategory category = type.getCategory();
+
+        SoundVoiceGroup typeGroup = getTypeGroup(type);
+        typeGroup.add(soundInstance);
+        typeGroup.activeVoices++;
+        if(soundInstance.getPlaybackMode() == PlaybackMode.CONTINUOUS) {
+            typeGroup.continuousSound = soundInstance;
+        }
+        if(category != null) {
+            SoundVoiceGroup categoryGroup = getCategoryGroup(category);
+            categoryGroup.add(soundInstance);
+            categoryGroup.activeVoices++;
+        }
+        soundInstance.countedAsVoice = true;
+    }
+
+    /**
+     * Removes the given sound from the groups of its type and category.
+     */
+    void unregister(SoundInstance soundInstance) {
+        release(soundInstance);
+        ParrotSoundType type = soundInstance.getType();
+        getTypeGroup(type).remove(soundInstance);
+        if(type.getCategory() != null) {
+            getCategoryGroup(type.getCategory()).remove(soundInstance);
+        }
+    }
+
+    /**
+     * Removes the given sound from the active voice counters of its groups, in case it's still counted. If it was the active continuous
+     * sound of its type, it stops being shared.
+     */
+    void release(SoundInstance soundInstance) {
+        if(!soundInstance.countedAsVoice) return;
+        soundInstance.countedAsVoice = false;
+        ParrotSoundType type = soundInstance.getType();
+        SoundVoiceGroup typeGroup = getTypeGroup(type);
+        typeGroup.activeVoices--;
+        if(typeGroup.continuousSound == soundInstance) {
+            typeGroup.continuousSound = null;
+        }
+        if(type.getCategory() != null) {
+            getCategoryGroup(type.getCategory()).activeVoices--;
+        }
+    }
+
+    /**
+     * Returns the active {@link PlaybackMode#CONTINUOUS continuous} sound of the given type, if any. Might return {@code null}.
+     */
+    SoundInstance getContinuousSound(ParrotSoundType type) {
+        SoundVoiceGroup typeGroup = findTypeGroup(type);
+        return typeGroup == null ? null : typeGroup.continuousSound;
+    }
+
+    /**
+     * Returns an active {@link PlaybackMode#NORMAL normal} sound of the given type that has been playing for less than
+     * {@link ParrotSoundType#getCoalesceTime()} and is within {@link ParrotSoundType#getCoalesceRadius()} of the given coordinates, so a
+     * new play can be merged into it. Might return {@code null}.
+     */
+    SoundInstance getCoalescibleSound(ParrotSoundType type, float x, float y) {
+        float coalesceTime = type.getCoalesceTime();
+        if(coalesceTime <= 0) return null;
+        SoundVoiceGroup typeGroup = findTypeGroup(type);
+        if(typeGroup == null) return null;
+
+        // Radius only matters for spatial sounds
+        ParrotSoundCategory category = type.getCategory();
+        float radius = category != null && category.isSpatial() ? type.getCoalesceRadius() : Float.POSITIVE_INFINITY;
+        float radius2 = radius * radius;
+
+        Array<SoundInstance> soundInstances = typeGroup.soundInstances;
+        for(int i = 0; i < soundInstances.size; i++) {
+            SoundInstance soundInstance = soundInstances.get(i);
+            if(soundInstance.getPlaybackMode() != PlaybackMode.NORMAL || !soundInstance.isActive()) continue;
+            if(soundInstance.getTime() > coalesceTime) continue;
+            float dstX = soundInstance.getPositionX() - x;
+            float dstY = soundInstance.getPositionY() - y;
+            if(dstX * dstX + dstY * dstY <= radius2) return soundInstance;
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether or not a new play of the given type should be admitted, according to its {@link AdmissionPolicy}. Nothing is stopped
+     * or registered. To decide whether the new play would be the first voice stolen, it's scored by the {@link VoiceStealPolicy} as a sound
+     * that has just started, at the volume it would have at its distance from the listener.
+     */
+    boolean admit(ParrotSoundType type, float x, float y, float volumeFactor, PlaybackMode mode) {
+        AdmissionPolicy admissionPolicy = type.getAdmissionPolicy();
+        if(admissionPolicy == null || admissionPolicy == AdmissionPolicy.ALWAYS) return true;
+
+        // Score new play, in case it has to compete with the voices playing
+        float score = 0;
+        if(admissionPolicy == AdmissionPolicy.REJECT_IF_VICTIM) {
+            SoundInstance probe = admissionProbe;
+            probe.type = type;
+            probe.priority = type.getPriority();
+            probe.playbackMode = mode;
+            probe.positionX = x;
+            probe.positionY = y;
+            probe.volumeFactor = volumeFactor;
+            probe.currentVolume = calculateVolume(type, x, y, volumeFactor);
+            score = stealPolicy.getStealScore(probe);
+            probe.reset();
+        }
+
+        // Check category first, then type
+        ParrotSoundCategory category = type.getCategory();
+        boolean admitted = category == null || admit(findCategoryGroup(category), category.getVoices(), admissionPolicy, score);
+        admitted = admitted && admit(findTypeGroup(type), type.getVoices(), admissionPolicy, score);
+        if(!admitted) rejectedPlays++;
+        return admitted;
+    }
+
+    /**
+     * Calculates the volume a new play of the given type would have once faded in, before master volume is applied, the same way sound
+     * players do. Volume variation is left out since it's only rolled once the sound is played.
+     */
+    private float calculateVolume(ParrotSoundType type, float x, float y, float volumeFactor) {
+        float distanceFactor = 1.0f;
+        ParrotSoundCategory category = type.getCategory();
+        if(category != null && category.isSpatial()) {
+            distanceFactor = settings.getDistanceRolloffFactor(listenerPosition.dst(x, y));
+        }
+        return settings.getPerceivedVolume(type.getVolume()) * distanceFactor * volumeFactor;
+    }
+
+    /**
+     * Returns whether or not a new play with the given score fits in the given group, which might be {@code null}. Voices are stolen in the
+     * same order as {@link #limitVoices}, lowest score first and oldest first among ties. Since the new play is the newest voice, it's only
+     * the victim if there are fewer voices scoring lower than or equal to it than voices exceeding the limit.
+     */
+    private boolean admit(SoundVoiceGroup group, int availableVoices, AdmissionPolicy admissionPolicy, float score) {
+        if(group == null || group.activeVoices < availableVoices) return true;
+        if(admissionPolicy == AdmissionPolicy.REJECT_IF_FULL) return false;
+
+        // Count voices that would be stolen before the new play
+        int candidates = 0;
+        int weakerVoices = 0;
+        Array<SoundInstance> soundInstances = group.soundInstances;
+        for(int i = 0; i < soundInstances.size; i++) {
+            SoundInstance soundInstance = soundInstances.get(i);
+            if(soundInstance.isActive() && !soundInstance.isExpired()) {
+                candidates++;
+                if(stealPolicy.getStealScore(soundInstance) <= score) weakerVoices++;
+            }
+        }
+        int exceedingVoices = candidates + 1 - Math.max(availableVoices, 0);
+        return exceedingVoices <= 0 || weakerVoices >= exceedingVoices;
+    }
+
+    /**
+     * Limits the amount of voices of the given {@link ParrotSoundType} playing at once. If there are more voices than the allowed amount,
+     * the ones with lowest score according to the {@link VoiceStealPolicy} are faded out through the given sound player, oldest first.
+     * Categories are limited first, then types. Stolen voices are only reported as stolen, not as stopped.
+     *
+     * @param tracer {@link ParrotTracer} to be notified of stolen voices. Might be {@code null}.
+     */
+    void limitVoices(ParrotSoundType type, AbstractSoundPlayer soundPlayer, ParrotTracer tracer) {
+        ParrotSoundCategory category = type.getCategory();
+
+        // Get voice limits
+        int availableVoicesForType = type.getVoices();
+        int availableVoicesForCategory = category == null ? Integer.MAX_VALUE : category.getVoices();
+
+        // Stop sounds based on category
+        if(category != null) {
+            SoundVoiceGroup categoryGroup = getCategoryGroup(category);
+            if(categoryGroup.activeVoices > availableVoicesForCategory) {
+                stopLowestScoringVoices(categoryGroup, availableVoicesForCategory, soundPlayer, tracer);
+            }
+        }
+
+        // Stop sounds based on type
+        SoundVoiceGroup typeGroup = getTypeGroup(type);
+        if(typeGroup.activeVoices > availableVoicesForType) {
+            stopLowestScoringVoices(typeGroup, availableVoicesForType, soundPlayer, tracer);
+        }
+    }
+
+    /**
+     * Stops the lowest scoring active voices of the given group, so only the given amount of them is left. Each candidate is scored once.
+     * <p>
+     * Scores are calculated at steal time rather than kept in a heap, since policies such as {@link AudibilityStealPolicy} depend on the
+     * volume and age of voices, which change every frame. Exceeding voices are picked through a selection instead of a sort, so a steal
+     * takes linear time in the size of the group.
+     */
+    private void stopLowestScoringVoices(SoundVoiceGroup group, int availableVoices, AbstractSoundPlayer soundPlayer, ParrotTracer tracer) {
+        // Gather voices that can be stopped
+        Array<SoundInstance> candidates = voiceCandidates;
+        Array<SoundInstance> soundInstances = group.soundInstances;
+        for(int i = 0; i < soundInstances.size; i++) {
+            SoundInstance soundInstance = soundInstances.get(i);
+            if(soundInstance.isActive() && !soundInstance.isExpired()) {
+                soundInstance.stealScore = stealPolicy.getStealScore(soundInstance);
+                candidates.add(soundInstance);
+            }
+        }
+
+        // Stop exceeding voices, lowest score first
+        int exceedingVoices = candidates.size - Math.max(availableVoices, 0);
+        if(exceedingVoices == 1) {
+            SoundInstance lowest = candidates.first();
+            for(int i = 1; i < candidates.size; i++) {
+                SoundInstance candidate = candidates.get(i);
+                if(stealComparator.compare(candidate, lowest) < 0) lowest = candidate;
+            }
+            if(tracer != null) tracer.voiceStolen(lowest);
+            soundPlayer.fadeOutSound(lowest);
+            stolenVoices++;
+        } else if(exceedingVoices > 1) {
+            // Move the exceeding voices to the front, in no particular order
+            if(exceedingVoices < candidates.size) {
+                stealSelect.select(candidates.items, stealComparator, exceedingVoices, candidates.size);
+            }
+            for(int i = 0; i < exceedingVoices; i++) {
+                if(tracer != null) tracer.voiceStolen(candidates.get(i));
+                soundPlayer.fadeOutSound(candidates.get(i));
+            }
+            stolenVoices += exceedingVoices;
+        }
+        candidates.clear();
+    }
+
+    /**
+     * Returns the {@link SoundVoiceGroup} of the given {@link ParrotSoundType}, or {@code null} in case it has never been played.
+     */
+    SoundVoiceGroup findTypeGroup(ParrotSoundType type) {
+        return groupsByType.get(type);
+    }
+
+    /**
+     * Returns the {@link SoundVoiceGroup} of the given {@link ParrotSoundCategory}, or {@code null} in case it has never been played.
+     */
+    SoundVoiceGroup findCategoryGroup(ParrotSoundCategory category) {
+        return groupsByCategory.get(category);
+    }
+
+    /**
+     * Returns the {@link SoundVoiceGroup} of the given {@link ParrotSoundType}, creating it if necessary.
+     */
+    SoundVoiceGroup getTypeGroup(ParrotSoundType type) {
+        SoundVoiceGroup group = groupsByType.get(type);
+        if(group == null) {
+            group = new SoundVoiceGroup(false);
+            groupsByType.put(type, group);
+        }
+        return group;
+    }
+
+    /**
+     * Returns the {@link SoundVoiceGroup} of the given {@link ParrotSoundCategory}, creating it if necessary.
+     */
+    SoundVoiceGroup getCategoryGroup(ParrotSoundCategory category) {
+        SoundVoiceGroup group = groupsByCategory.get(category);
+        if(group == null) {
+            group = new SoundVoiceGroup(true);
+            groupsByCategory.put(category, group);
+            categories.add(category);
+            categoryGroups.add(group);
+        }
+        return group;
+    }
+
+    /**
+     * Writes the active voices of each {@link ParrotSoundCategory} to the given {@link ParrotStats}.
+     */
+    void collectCategoryVoices(ParrotStats stats) {
+        for(int i = 0; i < categories.size; i++) {
+            stats.setCategoryVoices(categories.get(i), categoryGroups.get(i).activeVoices);
+        }
+    }
+
+    /**
+     * Returns the amount of voices stopped by voice limiting since the last call.
+     */
+    int takeStolenVoices() {
+        int stolenVoices = this.stolenVoices;
+        this.stolenVoices = 0;
+        return stolenVoices;
+    }
+
+    /**
+     * Returns the amount of plays rejected by admission policies since the last call.
+     */
+    int takeRejectedPlays() {
+        int rejectedPlays = this.rejectedPlays;
+        this.rejectedPlays = 0;
+        return rejectedPlays;
+    }
+
+    /**
+     * Removes all groups.
+     */
+    void clear() {
+        groupsByType.clear();
+        groupsByCategory.clear();
+        categories.clear();
+        categoryGroups.clear();
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.rafaskoberg.gdx.parrot.sfx;
+
+/**
+ * Strategy deciding which voices are stopped first whenever a {@link ParrotSoundType} or {@link ParrotSoundCategory} goes over its voice
+ * limit. Each candidate voice is scored once per steal, and the ones with the lowest scores are stopped. Ties are broken by stopping the
+ * oldest voice first.
+ */
+public interface VoiceStealPolicy {
+    /**
+     * Steals the voices with lowest {@link SoundInstance#getPriority() priority} first, and then the oldest ones. This is the default.
+     */
+    VoiceStealPolicy PRIORITY = SoundInstance::getPriority;
+
+    /**
+     * Returns the score of the given voice. Voices with lower scores are stolen first.
+     */
+    float getStealScore(SoundInstance soundInstance);
+
+}
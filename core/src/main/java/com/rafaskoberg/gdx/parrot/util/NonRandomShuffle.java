@@ -1,17 +1,36 @@
 package com.rafaskoberg.gdx.parrot.util;
 
-import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * This class helps control the randomness of the shuffling of sounds. If you play the same sound type multiple times, this class can help
  * prevent the same sound type index from playing twice in a row, makes a sound type index more likely to play if it hasn't for a while,
  * etc.
+ * <p>
+ * Weights are kept in a Fenwick tree, so finding the picked value and updating its weight take O(log n). Raising the weights of all other
+ * values is done through a global offset added to every weight, so it takes O(1). The total weight is kept up to date along with the
+ * tree, and truncated to an integer the same way previous versions did.
  */
 public class NonRandomShuffle<T> {
-    private List<WeightPair<T>> values = new ArrayList<>();
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Offset beyond which it's folded back into the weights, so they keep their float precision. */
+    private static final float MAX_OFFSET = 64;
+
+    // Values
+    private final Array<T> values = new Array<>();
+    private float[] weights = new float[INITIAL_CAPACITY];
+    private float[] tree = new float[INITIAL_CAPACITY + 1];
+    private int highestStep;
+    private float offset;
+    private float totalWeight;
+
+    // Members
+    private final ParrotRandom random = new ParrotRandom();
     private float dropOffMultiplier;
 
     /**
@@ -25,60 +44,154 @@ public class NonRandomShuffle<T> {
         this.dropOffMultiplier = dropOffMultiplier;
     }
 
+    /**
+     * Seeds the random number generator of this shuffle, so its picks can be reproduced.
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     public void addValue(T object) {
-        values.add(new WeightPair<>(object));
+        values.add(object);
+        ensureCapacity(values.size);
+        weights[values.size - 1] = 1 - offset;
+        rebuild();
+    }
+
+    /**
+     * Returns the amount of values in this shuffle.
+     */
+    public int getSize() {
+        return values.size;
     }
 
+    /**
+     * Returns the value at the given index.
+     */
+    public T getValue(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * Returns the current weight of the value at the given index. Values start with a weight of 1.
+     */
+    public float getWeight(int index) {
+        if(index >= values.size) throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + values.size);
+        return weights[index] + offset;
+    }
+
+    /**
+     * Returns a snapshot of the values in this shuffle along with their current weights. Changes to the returned list aren't reflected in
+     * this shuffle.
+     *
+     * @deprecated Use {@link #getSize()}, {@link #getValue(int)} and {@link #getWeight(int)} instead, which don't allocate.
+     */
+    @Deprecated
     public List<WeightPair<T>> getValues() {
-        return values;
+        List<WeightPair<T>> pairs = new ArrayList<>(values.size);
+        for(int i = 0; i < values.size; i++) {
+            WeightPair<T> pair = new WeightPair<>(values.get(i));
+            pair.weight = getWeight(i);
+            pairs.add(pair);
+        }
+        return pairs;
     }
 
     public void setValues(T... objects) {
         values.clear();
-        for(T object : objects) {
-            values.add(new WeightPair<>(object));
-        }
+        values.addAll(objects);
+        ensureCapacity(values.size);
+        offset = 0;
+        Arrays.fill(weights, 0, values.size, 1);
+        rebuild();
     }
 
     public void clearValues() {
         values.clear();
+        offset = 0;
+        rebuild();
     }
 
     /** Returns a random element from this list according to the provided dropOffMultiplier. */
     public T get() {
         // Empty list
-        if(values.isEmpty()) {
+        int size = values.size;
+        if(size == 0) {
             return null;
         }
 
-        // Calculate weight
-        int totalWeight = 0;
-        for(int i = 0; i < values.size(); i++) {
-            totalWeight += values.get(i).weight;
-        }
-
-        // Get random weighted index
+        // Get random weighted index, which is the first one whose cumulative weight reaches the rolled value
+        float r = random.nextFloat() * getTotalWeight();
         int idx = 0;
-        for(float r = MathUtils.random(0f, 1f) * totalWeight; idx < values.size() - 1; ++idx) {
-            r -= values.get(idx).weight;
-            if(r <= 0.0) {
-                break;
+        for(int step = highestStep; step > 0; step >>= 1) {
+            int next = idx + step;
+            if(next > size) continue;
+            float weight = tree[next] + step * offset;
+            if(weight < r) {
+                idx = next;
+                r -= weight;
             }
         }
+        idx = Math.min(idx, size - 1);
 
         // Reassign weights to make the chosen element less likely to be picked again, and all others to be more likely
-        for(int i = 0; i < values.size(); i++) {
-            if(i == idx) {
-                values.get(i).weight *= (1 - dropOffMultiplier);
-            } else {
-                values.get(i).weight += dropOffMultiplier;
-            }
-        }
+        float weight = (weights[idx] + offset) * (1 - dropOffMultiplier);
+        offset += dropOffMultiplier;
+        addWeight(idx, weight - offset - weights[idx]);
+        if(offset > MAX_OFFSET) rebuild();
 
         // Return object
-        return values.get(idx).object;
+        return values.get(idx);
+    }
+
+    /**
+     * Returns the sum of the weights of all values, truncated to an integer the same way previous versions did.
+     */
+    private int getTotalWeight() {
+        return (int) (totalWeight + values.size * offset);
     }
 
+    /**
+     * Adds the given amount to the weight of the value at the given index.
+     */
+    private void addWeight(int index, float amount) {
+        weights[index] += amount;
+        totalWeight += amount;
+        for(int i = index + 1; i <= values.size; i += i & -i) {
+            tree[i] += amount;
+        }
+    }
+
+    /**
+     * Folds the offset into the weights and rebuilds the tree from them.
+     */
+    private void rebuild() {
+        int size = values.size;
+        totalWeight = 0;
+        for(int i = 0; i < size; i++) {
+            weights[i] += offset;
+            tree[i + 1] = weights[i];
+            totalWeight += weights[i];
+        }
+        offset = 0;
+        for(int i = 1; i <= size; i++) {
+            int parent = i + (i & -i);
+            if(parent <= size) tree[parent] += tree[i];
+        }
+        highestStep = Integer.highestOneBit(size);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity <= weights.length) return;
+        int newCapacity = Math.max(capacity, weights.length * 2);
+        weights = Arrays.copyOf(weights, newCapacity);
+        tree = Arrays.copyOf(tree, newCapacity + 1);
+    }
+
+    /**
+     * @deprecated Returned by {@link #getValues()} only.
+     */
+    @Deprecated
     public static class WeightPair<T> {
         float weight;
         T object;
@@ -0,0 +1,17 @@
+package com.rafaskoberg.gdx.parrot.util;
+
+/**
+ * Source of the time used to check continuous sound timeouts and to fade out stopped sounds. Defaults to {@link #SYSTEM}, and can be
+ * swapped for a simulated clock, such as the one of a {@link com.rafaskoberg.gdx.parrot.headless.HeadlessAudio}, to make those
+ * reproducible.
+ */
+public interface ParrotClock {
+    /** Clock reading {@link System#currentTimeMillis()}. */
+    ParrotClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Returns the current time in milliseconds.
+     */
+    long millis();
+
+}
@@ -0,0 +1,64 @@
+package com.rafaskoberg.gdx.parrot.util;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Seedable random number generator owned by each sound player and {@link NonRandomShuffle}, so audio variations can be reproduced and
+ * don't consume numbers from the global {@link MathUtils#random} used by the rest of the game.
+ * <p>
+ * Triangular numbers are read from a precomputed table of the inverse distribution, linearly interpolated between entries.
+ */
+public class ParrotRandom extends RandomXS128 {
+    private static final int TRIANGULAR_RESOLUTION = 1024;
+    private static final float[] TRIANGULAR_TABLE = new float[TRIANGULAR_RESOLUTION + 1];
+
+    static {
+        for(int i = 0; i <= TRIANGULAR_RESOLUTION; i++) {
+            float u = i / (float) TRIANGULAR_RESOLUTION;
+            TRIANGULAR_TABLE[i] = u <= 0.5f ? -1 + (float) Math.sqrt(2 * u) : 1 - (float) Math.sqrt(2 * (1 - u));
+        }
+    }
+
+    /**
+     * Creates a new generator with a random seed.
+     */
+    public ParrotRandom() {
+        super();
+    }
+
+    /**
+     * Creates a new generator with the given seed.
+     */
+    public ParrotRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Returns a random number between 0 (inclusive) and the given value (exclusive).
+     */
+    public float random(float range) {
+        return nextFloat() * range;
+    }
+
+    /**
+     * Returns a triangularly distributed random number between -1 and 1, where values around 0 are more likely. Equivalent to
+     * {@link MathUtils#randomTriangular(float, float, float) MathUtils.randomTriangular(-1, 1, 0)}.
+     */
+    public float randomTriangular() {
+        float position = nextFloat() * TRIANGULAR_RESOLUTION;
+        int index = (int) position;
+        float alpha = position - index;
+        return TRIANGULAR_TABLE[index] + (TRIANGULAR_TABLE[index + 1] - TRIANGULAR_TABLE[index]) * alpha;
+    }
+
+    /**
+     * Returns a random item of the given {@link Array}, or {@code null} if it's empty.
+     */
+    public <T> T random(Array<T> array) {
+        if(array.size == 0) return null;
+        return array.get(nextInt(array.size));
+    }
+
+}
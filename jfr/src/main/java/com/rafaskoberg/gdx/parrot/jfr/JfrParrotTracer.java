@@ -0,0 +1,91 @@
+package com.rafaskoberg.gdx.parrot.jfr;
+
+import com.rafaskoberg.gdx.parrot.ParrotTracer;
+import com.rafaskoberg.gdx.parrot.sfx.SoundInstance;
+import jdk.jfr.EventType;
+
+/**
+ * {@link ParrotTracer} emitting Java Flight Recorder events under the "Parrot" category. Events are only created while they're enabled in
+ * a running recording, so the tracer doesn't allocate otherwise, and update events are only committed if their duration passes the
+ * recording's threshold. Must only be used from the thread updating Parrot.
+ * <p>
+ * Usage: {@code parrot.setTracer(new JfrParrotTracer());}
+ */
+public class JfrParrotTracer implements ParrotTracer {
+    // Event types, which know whether their events are enabled in any running recording
+    private static final EventType SOUND_PLAYED = EventType.getEventType(SoundPlayedEvent.class);
+    private static final EventType SOUND_STOPPED = EventType.getEventType(SoundStoppedEvent.class);
+    private static final EventType VOICE_STOLEN = EventType.getEventType(VoiceStolenEvent.class);
+    private static final EventType SOUND_EXPIRED = EventType.getEventType(SoundExpiredEvent.class);
+    private static final EventType SOUND_KILLED = EventType.getEventType(SoundKilledEvent.class);
+    private static final EventType UPDATE = EventType.getEventType(UpdateEvent.class);
+
+    // Update events
+    private UpdateEvent soundUpdate;
+    private UpdateEvent musicUpdate;
+
+    @Override
+    public void soundPlayed(SoundInstance soundInstance) {
+        if(SOUND_PLAYED.isEnabled()) new SoundPlayedEvent().commit(soundInstance);
+    }
+
+    @Override
+    public void soundStopped(SoundInstance soundInstance) {
+        if(SOUND_STOPPED.isEnabled()) new SoundStoppedEvent().commit(soundInstance);
+    }
+
+    @Override
+    public void voiceStolen(SoundInstance soundInstance) {
+        if(VOICE_STOLEN.isEnabled()) new VoiceStolenEvent().commit(soundInstance);
+    }
+
+    @Override
+    public void soundExpired(SoundInstance soundInstance) {
+        if(SOUND_EXPIRED.isEnabled()) new SoundExpiredEvent().commit(soundInstance);
+    }
+
+    @Override
+    public void soundKilled(SoundInstance soundInstance) {
+        if(SOUND_KILLED.isEnabled()) new SoundKilledEvent().commit(soundInstance);
+    }
+
+    @Override
+    public void beginSoundUpdate() {
+        soundUpdate = beginUpdate("sound");
+    }
+
+    @Override
+    public void endSoundUpdate() {
+        endUpdate(soundUpdate);
+        soundUpdate = null;
+    }
+
+    @Override
+    public void beginMusicUpdate() {
+        musicUpdate = beginUpdate("music");
+    }
+
+    @Override
+    public void endMusicUpdate() {
+        endUpdate(musicUpdate);
+        musicUpdate = null;
+    }
+
+    /**
+     * Creates and begins an update event for the given player, or returns {@code null} in case update events are disabled.
+     */
+    private static UpdateEvent beginUpdate(String player) {
+        if(!UPDATE.isEnabled()) return null;
+        UpdateEvent event = new UpdateEvent(player);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the given update event, which might be {@code null}.
+     */
+    private static void endUpdate(UpdateEvent event) {
+        if(event != null) event.commit();
+    }
+
+}
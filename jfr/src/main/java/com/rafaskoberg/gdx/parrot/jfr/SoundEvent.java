@@ -0,0 +1,44 @@
+package com.rafaskoberg.gdx.parrot.jfr;
+
+import com.rafaskoberg.gdx.parrot.sfx.ParrotSoundType;
+import com.rafaskoberg.gdx.parrot.sfx.SoundInstance;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of all Java Flight Recorder events describing a single sound.
+ */
+@Category("Parrot")
+@StackTrace(false)
+abstract class SoundEvent extends Event {
+    @Label("Type")
+    @Description("Sound type of the instance")
+    String type;
+
+    @Label("Category")
+    @Description("Sound category of the instance's type")
+    String category;
+
+    @Label("Priority")
+    int priority;
+
+    @Label("ID")
+    @Description("Public ID of the instance")
+    long id;
+
+    /**
+     * Fills this event in with the attributes of the given sound and commits it.
+     */
+    void commit(SoundInstance soundInstance) {
+        ParrotSoundType soundType = soundInstance.getType();
+        this.type = String.valueOf(soundType);
+        this.category = soundType == null ? null : String.valueOf(soundType.getCategory());
+        this.priority = soundInstance.getPriority();
+        this.id = soundInstance.getId();
+        commit();
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.rafaskoberg.gdx.parrot.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.rafaskoberg.gdx.parrot.SoundExpired")
+@Label("Sound Expired")
+@Description("A sound reached the end of its duration or its continuous timeout")
+class SoundExpiredEvent extends SoundEvent {
+}
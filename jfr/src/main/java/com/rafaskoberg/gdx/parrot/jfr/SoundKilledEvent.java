@@ -0,0 +1,11 @@
+package com.rafaskoberg.gdx.parrot.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.rafaskoberg.gdx.parrot.SoundKilled")
+@Label("Sound Killed")
+@Description("A sound was instantly killed and removed")
+class SoundKilledEvent extends SoundEvent {
+}
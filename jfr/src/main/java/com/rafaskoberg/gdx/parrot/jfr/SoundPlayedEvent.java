@@ -0,0 +1,11 @@
+package com.rafaskoberg.gdx.parrot.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.rafaskoberg.gdx.parrot.SoundPlayed")
+@Label("Sound Played")
+@Description("A sound was registered to be played")
+class SoundPlayedEvent extends SoundEvent {
+}
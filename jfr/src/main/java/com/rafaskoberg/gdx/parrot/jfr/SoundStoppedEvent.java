@@ -0,0 +1,11 @@
+package com.rafaskoberg.gdx.parrot.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.rafaskoberg.gdx.parrot.SoundStopped")
+@Label("Sound Stopped")
+@Description("A sound was explicitly stopped and started fading out")
+class SoundStoppedEvent extends SoundEvent {
+}
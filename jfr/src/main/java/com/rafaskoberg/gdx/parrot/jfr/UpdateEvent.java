@@ -0,0 +1,27 @@
+package com.rafaskoberg.gdx.parrot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event timing an update of either the sound or the music player.
+ */
+@Name("com.rafaskoberg.gdx.parrot.Update")
+@Label("Player Update")
+@Description("Duration of a sound or music player update")
+@Category("Parrot")
+@StackTrace(false)
+class UpdateEvent extends Event {
+    @Label("Player")
+    @Description("Either \"sound\" or \"music\"")
+    String player;
+
+    UpdateEvent(String player) {
+        this.player = player;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.rafaskoberg.gdx.parrot.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.rafaskoberg.gdx.parrot.SoundVoiceStolen")
+@Label("Voice Stolen")
+@Description("A sound was stopped by voice limiting")
+class VoiceStolenEvent extends SoundEvent {
+}